@@ -0,0 +1,154 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.apache.maven.enforcer.rule.api.AbstractEnforcerRule;
+import org.apache.maven.enforcer.rule.api.EnforcerRuleException;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Base of the Enforcer 3.x rules that run the kevlar scan of a project.
+ *
+ * <p>
+ * It holds the parameters that decide how the sources are read, which are the same
+ * for every such rule, and runs a {@link NoCyclicPackageDependencyRule} configured
+ * by {@link #configure(NoCyclicPackageDependencyRule)}. Subclasses add their own
+ * checks to that step; the scan itself, with its incremental and in-memory caches,
+ * is shared (see {@link SourceModel}).
+ * </p>
+ *
+ * <p>
+ * The Enforcer result cache is keyed by {@link #getCacheId()}, which the rule can
+ * compute before running because the project is injected: the configuration, the
+ * module, and a fingerprint of the files it would read taken from their sizes and
+ * modification times. An unchanged module is skipped without being scanned, and
+ * any edit, or another module with the same configuration, gets a different id.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+//CHECKSTYLE:OFF
+@SuppressWarnings("PMD")
+abstract class AbstractScanRule extends AbstractEnforcerRule {
+
+    private final MavenProject project;
+    private final SourceModelCache modelCache;
+
+    /** Padrões de exclusão de pacotes */
+    private List<String> excludePatterns = new ArrayList<>();
+
+    /** Se deve falhar em caso de violação */
+    private boolean failOnError = true;
+
+    /** Número de threads usadas na leitura dos arquivos (1 = sequencial) */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /** Se deve reutilizar, entre builds, os imports dos arquivos não alterados */
+    private boolean incrementalCache = true;
+
+    /** Origem das dependências: "source" ou "bytecode" */
+    private String analysisMode = "source";
+
+    /** Fontes de teste: "none", "separate" ou "combined" */
+    private String testSources = "none";
+
+    /**
+     * @param project    projeto do módulo em execução
+     * @param modelCache cache em memória compartilhado pela JVM
+     */
+    AbstractScanRule(final MavenProject project, final SourceModelCache modelCache) {
+        this.project = Objects.requireNonNull(project, "project");
+        this.modelCache = modelCache;
+    }
+
+    @Override
+    public void execute() throws EnforcerRuleException {
+        final NoCyclicPackageDependencyRule rule = new NoCyclicPackageDependencyRule();
+        configure(rule);
+        rule.execute(project, session(), new EnforcerLog(getLog()));
+    }
+
+    /**
+     * Identidade do resultado: a configuração, o módulo e a impressão digital dos
+     * arquivos que seriam lidos. {@code null} (sem cache) quando o resultado depende
+     * de mais do que esses arquivos ou quando eles não podem ser listados.
+     */
+    @Override
+    public String getCacheId() {
+        try {
+            final NoCyclicPackageDependencyRule rule = new NoCyclicPackageDependencyRule();
+            configure(rule);
+            final List<Path> files = rule.inputFiles(project);
+            if (files == null) {
+                return null;
+            }
+            return getClass().getSimpleName() + ":" + project.getGroupId() + ":" + project.getArtifactId() + ":"
+                    + project.getVersion() + ":" + project.getBasedir() + ":" + rule.getCacheId() + ":"
+                    + SourceFingerprint.ofFiles(files);
+        } catch (EnforcerRuleException | IOException | UncheckedIOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Passa à regra os parâmetros da varredura; as subclasses acrescentam as suas
+     * verificações, e podem recusar uma configuração inválida.
+     */
+    void configure(final NoCyclicPackageDependencyRule rule) throws EnforcerRuleException {
+        rule.setProjectName(project.getArtifactId() != null ? project.getArtifactId() : "Unknown Project");
+        rule.setExcludePatterns(excludePatterns);
+        rule.setFailOnError(failOnError);
+        rule.setParallelism(parallelism);
+        rule.setIncrementalCache(incrementalCache);
+        rule.setAnalysisMode(analysisMode);
+        rule.setTestSources(testSources);
+        rule.setModelCache(modelCache);
+    }
+
+    /**
+     * Sessão do build, usada só no modo agregado.
+     */
+    MavenSession session() {
+        return null;
+    }
+
+    String analysisMode() {
+        return analysisMode;
+    }
+
+    List<String> excludePatterns() {
+        return excludePatterns;
+    }
+
+    // Configuration setters
+    public void setExcludePatterns(final List<String> excludePatterns) {
+        this.excludePatterns = new ArrayList<>(excludePatterns);
+    }
+
+    public void setFailOnError(final boolean failOnError) {
+        this.failOnError = failOnError;
+    }
+
+    public void setParallelism(final int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public void setIncrementalCache(final boolean incrementalCache) {
+        this.incrementalCache = incrementalCache;
+    }
+
+    public void setAnalysisMode(final String analysisMode) {
+        this.analysisMode = analysisMode;
+    }
+
+    public void setTestSources(final String testSources) {
+        this.testSources = testSources;
+    }
+}
@@ -0,0 +1,75 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.apache.maven.enforcer.rule.api.EnforcerRuleException;
+import org.apache.maven.project.MavenProject;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maven Enforcer 3.x rule that checks Macker access rulesets, such as the
+ * {@code macker/layering.xml} and {@code macker/modularity.xml} bundled with this
+ * plugin, against the dependencies of the project.
+ *
+ * <p>
+ * The rule is declared as {@code <accessRules>} and only evaluates the rulesets
+ * (see {@link MackerRuleset}); to check cycles and access rules together, set
+ * {@code accessRules} on the cycle rule instead. Rulesets are files relative to
+ * the project or classpath resources, and their {@code <var>}s can be overridden
+ * through {@code variables}.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+//CHECKSTYLE:OFF
+@SuppressWarnings("PMD")
+@Named("accessRules")
+public class AccessRules extends AbstractScanRule {
+
+    /** Conjuntos de regras de acesso (arquivos do projeto ou recursos do classpath) */
+    private List<String> rulesets = new ArrayList<>();
+
+    /** Valores que substituem as variáveis ({@code <var>}) dos conjuntos de regras */
+    private Map<String, String> variables = new HashMap<>();
+
+    /**
+     * @param project    projeto do módulo em execução
+     * @param modelCache cache em memória compartilhado pela JVM
+     */
+    @Inject
+    public AccessRules(final MavenProject project, final SourceModelCache modelCache) {
+        super(project, modelCache);
+    }
+
+    @Override
+    void configure(final NoCyclicPackageDependencyRule rule) throws EnforcerRuleException {
+        if (rulesets.isEmpty()) {
+            throw new EnforcerRuleException("rulesets must not be empty");
+        }
+        super.configure(rule);
+        rule.setCheckCycles(false);
+        rule.setAccessRules(rulesets);
+        rule.setAccessRuleVariables(variables);
+    }
+
+    @Override
+    public String toString() {
+        return "AccessRules[rulesets=%s, analysisMode=%s, excludePatterns=%s]"
+                .formatted(rulesets, analysisMode(), excludePatterns());
+    }
+
+    // Configuration setters
+    public void setRulesets(final List<String> rulesets) {
+        this.rulesets = new ArrayList<>(rulesets);
+    }
+
+    public void setVariables(final Map<String, String> variables) {
+        this.variables = new HashMap<>(variables);
+    }
+}
@@ -0,0 +1,430 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.Checksum;
+
+/**
+ * Minimal reader for the type references of a compiled {@code .class} file.
+ *
+ * <p>
+ * The reader walks the constant pool and the member tables directly on a
+ * {@link ByteBuffer}, without ASM and without loading the class. It reports every
+ * class the bytecode refers to: class constants (superclass, interfaces, code
+ * references, exceptions, nested classes), the descriptors of referenced fields
+ * and methods, the descriptors and generic signatures of the class's own fields
+ * and methods, and the types of class, field and method annotations. The result is
+ * returned as a {@link SourceHeader} whose package is the package of the class and
+ * whose imports are the referenced classes, so it plugs into the same pipeline as
+ * the source lexer.
+ * </p>
+ *
+ * <p>
+ * Module descriptors have no package and yield a header with a {@code null}
+ * package. Names are decoded as UTF-8, which matches the modified UTF-8 of class
+ * files for every character that can appear in a class name.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+    private static final int ACC_MODULE = 0x8000;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    /** Buffer de leitura reutilizado por thread */
+    private static final ThreadLocal<ByteBuffer> BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocate(16 * 1024));
+
+    private final ByteBuffer buffer;
+    private final NameInterner interner;
+
+    /** Posição de cada entrada do pool (primeiro byte após a tag) e sua tag */
+    private int[] offsets;
+    private byte[] tags;
+
+    private final Set<String> seen = new HashSet<>();
+    private final List<ImportDeclaration> references = new ArrayList<>();
+    private byte[] name = new byte[256];
+
+    private ClassFileReader(final ByteBuffer buffer, final NameInterner interner) {
+        this.buffer = buffer;
+        this.interner = interner;
+    }
+
+    /**
+     * Lê as referências de um arquivo {@code .class}.
+     */
+    static SourceHeader read(final Path file, final NameInterner interner) throws IOException {
+        return read(file, interner, null);
+    }
+
+    /**
+     * Lê as referências de um arquivo {@code .class}, passando a {@code content} o
+     * conteúdo inteiro do arquivo.
+     */
+    static SourceHeader read(final Path file, final NameInterner interner, final Checksum content)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Class file too large: " + file);
+            }
+            ByteBuffer buffer = BUFFER.get();
+            if (buffer.capacity() < size) {
+                buffer = ByteBuffer.allocate(Integer.highestOneBit((int) size) << 1);
+                BUFFER.set(buffer);
+            }
+            buffer.clear().limit((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Unexpected end of " + file);
+                }
+            }
+            buffer.flip();
+            if (content != null) {
+                content.update(buffer.duplicate());
+            }
+            return read(buffer, interner);
+        }
+    }
+
+    /**
+     * Lê as referências a partir de um conteúdo já em memória.
+     */
+    static SourceHeader read(final ByteBuffer content, final NameInterner interner) throws IOException {
+        try {
+            return new ClassFileReader(content.slice(), interner).header();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Malformed class file", e);
+        }
+    }
+
+    private SourceHeader header() throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        buffer.getShort(); // minor
+        buffer.getShort(); // major
+        readConstantPool();
+
+        final int access = u2();
+        final int thisClass = u2();
+        if ((access & ACC_MODULE) != 0) {
+            return new SourceHeader(null, List.of());
+        }
+        final String internalName = utf8(u2At(offsets[thisClass]));
+        final String packageName = packageOf(internalName);
+        // a própria classe também aparece nos descritores dos seus membros
+        seen.add(interner.intern(internalName.replace('/', '.')));
+
+        // todas as classes referenciadas pelo código passam pelo pool
+        for (int index = 1; index < tags.length; index++) {
+            switch (tags[index]) {
+                case CONSTANT_CLASS -> {
+                    if (index != thisClass) {
+                        classConstant(buffer.getShort(offsets[index]) & 0xFFFF);
+                    }
+                }
+                case CONSTANT_NAME_AND_TYPE -> descriptor(buffer.getShort(offsets[index] + 2) & 0xFFFF);
+                case CONSTANT_METHOD_TYPE -> descriptor(buffer.getShort(offsets[index]) & 0xFFFF);
+                default -> {
+                    // sem referência a tipos
+                }
+            }
+        }
+
+        u2(); // superclasse, já vista no pool
+        skip(2 * u2()); // interfaces, idem
+        readMembers();
+        readMembers();
+        readAttributes();
+        return new SourceHeader(packageName, references, (access & (ACC_INTERFACE | ACC_ABSTRACT)) != 0);
+    }
+
+    private void readConstantPool() throws IOException {
+        final int count = u2();
+        offsets = new int[count];
+        tags = new byte[count];
+        for (int index = 1; index < count; index++) {
+            final int tag = buffer.get();
+            tags[index] = (byte) tag;
+            offsets[index] = buffer.position();
+            switch (tag) {
+                case CONSTANT_UTF8 -> buffer.position(buffer.position() + 2 + u2At(buffer.position()));
+                case CONSTANT_CLASS, CONSTANT_STRING, CONSTANT_METHOD_TYPE, CONSTANT_MODULE, CONSTANT_PACKAGE ->
+                        skip(2);
+                case CONSTANT_METHOD_HANDLE -> skip(3);
+                case CONSTANT_INTEGER, CONSTANT_FLOAT, CONSTANT_FIELDREF, CONSTANT_METHODREF,
+                        CONSTANT_INTERFACE_METHODREF, CONSTANT_NAME_AND_TYPE, CONSTANT_DYNAMIC,
+                        CONSTANT_INVOKE_DYNAMIC -> skip(4);
+                case CONSTANT_LONG, CONSTANT_DOUBLE -> {
+                    skip(8);
+                    index++; // ocupam duas posições
+                }
+                default -> throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+    }
+
+    /**
+     * Campos ou métodos: descritor e atributos de cada um.
+     */
+    private void readMembers() {
+        final int count = u2();
+        for (int i = 0; i < count; i++) {
+            skip(4); // acesso e nome
+            descriptor(u2());
+            readAttributes();
+        }
+    }
+
+    /**
+     * Atributos: só Signature e anotações interessam; o resto é pulado.
+     */
+    private void readAttributes() {
+        final int count = u2();
+        for (int i = 0; i < count; i++) {
+            final int nameIndex = u2();
+            final int length = buffer.getInt();
+            final int end = buffer.position() + length;
+            switch (utf8(nameIndex)) {
+                case "Signature" -> descriptor(u2());
+                case "RuntimeVisibleAnnotations", "RuntimeInvisibleAnnotations" -> annotations();
+                case "RuntimeVisibleParameterAnnotations", "RuntimeInvisibleParameterAnnotations" -> {
+                    final int parameters = buffer.get() & 0xFF;
+                    for (int p = 0; p < parameters; p++) {
+                        annotations();
+                    }
+                }
+                default -> {
+                    // Code, LineNumberTable etc.: as referências já estão no pool
+                }
+            }
+            buffer.position(end);
+        }
+    }
+
+    private void annotations() {
+        final int count = u2();
+        for (int i = 0; i < count; i++) {
+            annotation();
+        }
+    }
+
+    private void annotation() {
+        descriptor(u2());
+        final int pairs = u2();
+        for (int i = 0; i < pairs; i++) {
+            u2(); // nome do elemento
+            elementValue();
+        }
+    }
+
+    private void elementValue() {
+        final int tag = buffer.get();
+        switch (tag) {
+            case 'e' -> {
+                descriptor(u2());
+                u2();
+            }
+            case 'c' -> descriptor(u2());
+            case '@' -> annotation();
+            case '[' -> {
+                final int count = u2();
+                for (int i = 0; i < count; i++) {
+                    elementValue();
+                }
+            }
+            default -> u2(); // constante
+        }
+    }
+
+    /**
+     * Constante de classe: nome interno ou, para arrays, um descritor.
+     */
+    private void classConstant(final int utf8Index) {
+        final int start = offsets[utf8Index] + 2;
+        final int end = start + u2At(offsets[utf8Index]);
+        if (start < end && buffer.get(start) == '[') {
+            parseType(start, end);
+        } else {
+            reference(start, end);
+        }
+    }
+
+    /**
+     * Descritor ou assinatura genérica (de campo, método ou classe).
+     */
+    private void descriptor(final int utf8Index) {
+        if (utf8Index == 0 || tags[utf8Index] != CONSTANT_UTF8) {
+            return;
+        }
+        final int start = offsets[utf8Index] + 2;
+        final int end = start + u2At(offsets[utf8Index]);
+        int i = start;
+        if (i < end && buffer.get(i) == '<') {
+            i = parseTypeParameters(i + 1, end);
+        }
+        while (i < end) {
+            final int c = buffer.get(i);
+            if (c == '(' || c == ')' || c == '^' || c == 'V') {
+                i++;
+            } else {
+                i = parseType(i, end);
+            }
+        }
+    }
+
+    /**
+     * Parâmetros formais {@code <T:Lx;U::Ly;>}, a partir do primeiro nome.
+     */
+    private int parseTypeParameters(int i, final int end) {
+        while (i < end && buffer.get(i) != '>') {
+            while (i < end && buffer.get(i) != ':') {
+                i++;
+            }
+            while (i < end && buffer.get(i) == ':') {
+                i++;
+                if (i < end && buffer.get(i) != ':') {
+                    i = parseType(i, end);
+                }
+            }
+        }
+        return i + 1;
+    }
+
+    /**
+     * Lê um tipo a partir de {@code i} e retorna a posição seguinte.
+     */
+    private int parseType(int i, final int end) {
+        final int c = buffer.get(i);
+        switch (c) {
+            case 'L' -> {
+                int j = i + 1;
+                while (j < end && !isNameEnd(buffer.get(j))) {
+                    j++;
+                }
+                reference(i + 1, j);
+                while (j < end) {
+                    final int next = buffer.get(j);
+                    if (next == ';') {
+                        return j + 1;
+                    }
+                    if (next == '<') {
+                        j++;
+                        while (j < end && buffer.get(j) != '>') {
+                            j = parseType(j, end);
+                        }
+                        j++;
+                    } else { // '.': classe interna parametrizada
+                        j++;
+                        while (j < end && !isNameEnd(buffer.get(j))) {
+                            j++;
+                        }
+                    }
+                }
+                return j;
+            }
+            case 'T' -> {
+                while (i < end && buffer.get(i) != ';') {
+                    i++;
+                }
+                return i + 1;
+            }
+            case '[', '+', '-' -> {
+                return parseType(i + 1, end);
+            }
+            default -> {
+                return i + 1; // primitivo ou '*'
+            }
+        }
+    }
+
+    private static boolean isNameEnd(final byte b) {
+        return b == ';' || b == '<' || b == '.';
+    }
+
+    /**
+     * Registra a classe de nome interno {@code buffer[start..end)}.
+     */
+    private void reference(final int start, final int end) {
+        final int length = end - start;
+        if (length <= 0) {
+            return;
+        }
+        if (name.length < length) {
+            name = new byte[Math.max(length, name.length * 2)];
+        }
+        int lastSlash = -1;
+        for (int i = 0; i < length; i++) {
+            final byte b = buffer.get(start + i);
+            if (b == '/') {
+                lastSlash = i;
+                name[i] = '.';
+            } else {
+                name[i] = b;
+            }
+        }
+        final String className = interner.intern(name, length);
+        if (seen.add(className)) {
+            final String qualifier = lastSlash < 0 ? null : interner.intern(name, lastSlash);
+            references.add(new ImportDeclaration(className, qualifier, false, false));
+        }
+    }
+
+    private String utf8(final int index) {
+        final int length = u2At(offsets[index]);
+        if (name.length < length) {
+            name = new byte[Math.max(length, name.length * 2)];
+        }
+        buffer.get(offsets[index] + 2, name, 0, length);
+        return interner.intern(name, length);
+    }
+
+    private String packageOf(final String internalName) {
+        final int lastSlash = internalName.lastIndexOf('/');
+        return lastSlash < 0 ? "" : interner.intern(internalName.substring(0, lastSlash).replace('/', '.'));
+    }
+
+    private int u2() {
+        return buffer.getShort() & 0xFFFF;
+    }
+
+    private int u2At(final int position) {
+        return buffer.getShort(position) & 0xFFFF;
+    }
+
+    private void skip(final int bytes) {
+        buffer.position(buffer.position() + bytes);
+    }
+}
@@ -0,0 +1,140 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matcher for a set of Macker-style class name patterns, compiled into a trie of
+ * name segments.
+ *
+ * <p>
+ * A pattern is a dotted name whose segments are either literal, a glob in which
+ * {@code *} stands for any characters within the segment (such as
+ * {@code *Factory}), or {@code **}, which stands for one or more whole segments.
+ * Patterns share the nodes of their common literal prefix, so matching a name walks
+ * its segments once, branching only at glob and {@code **} nodes, and collects the
+ * ids of every pattern that matches. No regular expressions are involved.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class ClassPatternTrie {
+
+    private static final String ANY_SEGMENTS = "**";
+
+    private static final class Node {
+        private final Map<String, Node> literals = new HashMap<>();
+        private final List<String> globs = new ArrayList<>();
+        private final List<Node> globNodes = new ArrayList<>();
+        private Node anySegments;
+        private final BitSet accepts = new BitSet();
+    }
+
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * Acrescenta um padrão e retorna o seu id; padrões iguais recebem o mesmo nó, mas
+     * ids distintos.
+     *
+     * @throws IllegalArgumentException se um segmento misturar {@code **} com outros caracteres
+     */
+    int add(final String pattern) {
+        Node node = root;
+        for (final String segment : pattern.split("\\.", -1)) {
+            if (segment.equals(ANY_SEGMENTS)) {
+                if (node.anySegments == null) {
+                    node.anySegments = new Node();
+                }
+                node = node.anySegments;
+            } else if (segment.contains(ANY_SEGMENTS)) {
+                throw new IllegalArgumentException("Unsupported class pattern '" + pattern
+                        + "' ('**' must be a whole segment)");
+            } else if (segment.indexOf('*') >= 0) {
+                final int existing = node.globs.indexOf(segment);
+                if (existing >= 0) {
+                    node = node.globNodes.get(existing);
+                } else {
+                    final Node child = new Node();
+                    node.globs.add(segment);
+                    node.globNodes.add(child);
+                    node = child;
+                }
+            } else {
+                node = node.literals.computeIfAbsent(segment, key -> new Node());
+            }
+        }
+        node.accepts.set(size);
+        return size++;
+    }
+
+    /**
+     * Número de padrões.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Ids dos padrões que casam com o nome.
+     */
+    BitSet match(final String name) {
+        final BitSet result = new BitSet(size);
+        match(root, name.split("\\.", -1), 0, result);
+        return result;
+    }
+
+    private static void match(final Node node, final String[] segments, final int index, final BitSet result) {
+        if (index == segments.length) {
+            result.or(node.accepts);
+            return;
+        }
+        final Node literal = node.literals.get(segments[index]);
+        if (literal != null) {
+            match(literal, segments, index + 1, result);
+        }
+        for (int i = 0; i < node.globs.size(); i++) {
+            if (globMatches(node.globs.get(i), segments[index])) {
+                match(node.globNodes.get(i), segments, index + 1, result);
+            }
+        }
+        if (node.anySegments != null) {
+            // "**" consome um ou mais segmentos
+            for (int next = index + 1; next <= segments.length; next++) {
+                match(node.anySegments, segments, next, result);
+            }
+        }
+    }
+
+    /**
+     * Se o segmento casa com o glob, em que {@code *} é qualquer sequência de caracteres.
+     */
+    static boolean globMatches(final String glob, final String segment) {
+        int g = 0;
+        int s = 0;
+        int star = -1;
+        int mark = 0;
+        while (s < segment.length()) {
+            if (g < glob.length() && glob.charAt(g) == '*') {
+                star = g++;
+                mark = s;
+            } else if (g < glob.length() && glob.charAt(g) == segment.charAt(s)) {
+                g++;
+                s++;
+            } else if (star >= 0) {
+                g = star + 1;
+                s = ++mark;
+            } else {
+                return false;
+            }
+        }
+        while (g < glob.length() && glob.charAt(g) == '*') {
+            g++;
+        }
+        return g == glob.length();
+    }
+}
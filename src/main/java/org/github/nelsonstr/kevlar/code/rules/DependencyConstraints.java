@@ -0,0 +1,154 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Forbidden and allowed package dependencies, checked against every edge of a
+ * {@link TypeGraph}.
+ *
+ * <p>
+ * Each constraint reads {@code source -> target, target...}, such as
+ * {@code ..domain.. -> java.sql, org.springframework}, where both sides are
+ * {@link PackagePatternAutomaton} patterns; without a source the constraint applies
+ * to every package, as Checkstyle's {@code IllegalImport} does. An edge violates
+ * the constraints when a forbidden constraint matches it and no allowed constraint
+ * does, so allowed constraints carve exceptions out of forbidden ones.
+ * </p>
+ *
+ * <p>
+ * All source patterns are compiled into one automaton and all target patterns into
+ * another. Each package is matched once per check; every edge is then decided by
+ * comparing the sets of constraints matched by its two packages.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class DependencyConstraints {
+
+    private static final String ARROW = "->";
+
+    /**
+     * Aresta que viola uma restrição: o tipo de origem e o tipo (ou pacote externo) de destino.
+     */
+    record Violation(String constraint, String from, String to) {
+    }
+
+    private final PackagePatternAutomaton sources = new PackagePatternAutomaton();
+    private final PackagePatternAutomaton targets = new PackagePatternAutomaton();
+    /** Texto de cada restrição, pelo seu id */
+    private final List<String> constraints = new ArrayList<>();
+    /** Ids das restrições que permitem, em vez de proibir */
+    private final BitSet allowed = new BitSet();
+
+    private DependencyConstraints() {
+    }
+
+    /**
+     * Compila as restrições.
+     *
+     * @throws IllegalArgumentException se alguma restrição for inválida
+     */
+    static DependencyConstraints compile(final List<String> forbidden, final List<String> allowed) {
+        final DependencyConstraints result = new DependencyConstraints();
+        forbidden.forEach(entry -> result.add(entry, false));
+        allowed.forEach(entry -> result.add(entry, true));
+        return result;
+    }
+
+    /**
+     * Se não há restrições proibindo dependências.
+     */
+    boolean isEmpty() {
+        return allowed.cardinality() == constraints.size();
+    }
+
+    /**
+     * Arestas do grafo que violam as restrições, na ordem dos tipos de origem.
+     */
+    List<Violation> check(final TypeGraph graph) {
+        final List<Violation> violations = new ArrayList<>();
+        final Map<String, BitSet> sourceMatches = new HashMap<>();
+        final Map<String, BitSet> targetMatches = new HashMap<>();
+        for (int node = 0; node < graph.size(); node++) {
+            final BitSet source = sourceMatches.computeIfAbsent(graph.packageName(node), sources::match);
+            if (!hasForbidden(source)) {
+                continue;
+            }
+            for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                final int target = graph.target(edge);
+                check(source, targetMatches.computeIfAbsent(graph.packageName(target), targets::match),
+                        graph.name(node), graph.name(target), violations);
+            }
+            for (int edge = graph.externalEdgeStart(node); edge < graph.externalEdgeEnd(node); edge++) {
+                final String target = graph.externalName(graph.externalTarget(edge));
+                check(source, targetMatches.computeIfAbsent(target, targets::match), graph.name(node), target,
+                        violations);
+            }
+        }
+        return violations;
+    }
+
+    private void check(final BitSet source, final BitSet target, final String from, final String to,
+            final List<Violation> violations) {
+        int violated = -1;
+        for (int id = source.nextSetBit(0); id >= 0; id = source.nextSetBit(id + 1)) {
+            if (target.get(id)) {
+                if (allowed.get(id)) {
+                    return;
+                }
+                if (violated < 0) {
+                    violated = id;
+                }
+            }
+        }
+        if (violated >= 0) {
+            violations.add(new Violation(constraints.get(violated), from, to));
+        }
+    }
+
+    private boolean hasForbidden(final BitSet source) {
+        for (int id = source.nextSetBit(0); id >= 0; id = source.nextSetBit(id + 1)) {
+            if (!allowed.get(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Acrescenta uma restrição por destino; os ids nos dois autômatos são os mesmos.
+     */
+    private void add(final String entry, final boolean allow) {
+        final int arrow = entry.indexOf(ARROW);
+        final String source = arrow < 0 ? ".." : entry.substring(0, arrow).trim();
+        final String targetList = arrow < 0 ? entry : entry.substring(arrow + ARROW.length());
+        boolean any = false;
+        for (final String part : targetList.split(",")) {
+            final String target = part.trim();
+            if (target.isEmpty()) {
+                continue;
+            }
+            try {
+                sources.add(source);
+                targets.add(target);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid dependency constraint '" + entry.trim() + "': "
+                        + e.getMessage(), e);
+            }
+            if (allow) {
+                allowed.set(constraints.size());
+            }
+            constraints.add(source + " " + ARROW + " " + target);
+            any = true;
+        }
+        if (!any) {
+            throw new IllegalArgumentException("Invalid dependency constraint '" + entry.trim()
+                    + "': no target packages");
+        }
+    }
+}
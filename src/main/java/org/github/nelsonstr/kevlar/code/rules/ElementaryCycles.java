@@ -0,0 +1,194 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Enumerates the elementary cycles of one strongly connected component with
+ * Johnson's algorithm.
+ *
+ * <p>
+ * Cycles are handed to a {@link CycleConsumer} as soon as they are found and are
+ * never collected, so memory use depends on the size of the component only, not on
+ * the number of cycles. The search is iterative and stops when a cycle limit or a
+ * time budget is reached. An optional maximum cycle length prunes the search; the
+ * pruned branches are treated as successful so that no vertex is left blocked
+ * and no shorter cycle is missed.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class ElementaryCycles {
+
+    /** Verificação do relógio a cada N passos */
+    private static final int CLOCK_INTERVAL = 1024;
+
+    /** Como terminou a enumeração */
+    enum Outcome {
+        /** Todos os ciclos (até o comprimento máximo) foram enumerados */
+        COMPLETE,
+        /** O limite de ciclos por componente foi atingido */
+        CYCLE_LIMIT,
+        /** O tempo disponível se esgotou */
+        TIME_BUDGET
+    }
+
+    /** Recebe cada ciclo encontrado */
+    @FunctionalInterface
+    interface CycleConsumer {
+        /**
+         * Recebe um ciclo como ids de pacotes, com o primeiro repetido no fim. O array
+         * pode ser guardado pelo consumidor.
+         */
+        void accept(int[] cycle);
+    }
+
+    private ElementaryCycles() {
+    }
+
+    /**
+     * Enumera os ciclos elementares do componente.
+     *
+     * @param graph     grafo completo
+     * @param component ids do componente, em ordem crescente
+     * @param maxLength número máximo de pacotes por ciclo ({@code <= 0} sem limite)
+     * @param maxCycles número máximo de ciclos a reportar ({@code <= 0} sem limite)
+     * @param budgetMillis tempo máximo em milissegundos ({@code <= 0} sem limite)
+     * @param consumer  destino dos ciclos
+     */
+    static Outcome enumerate(final PackageGraph graph, final int[] component, final int maxLength,
+            final int maxCycles, final long budgetMillis, final CycleConsumer consumer) {
+        final int k = component.length;
+        final int lengthLimit = maxLength <= 0 ? k : Math.min(maxLength, k);
+        final long deadline = budgetMillis <= 0 ? Long.MAX_VALUE : System.nanoTime() + budgetMillis * 1_000_000L;
+
+        // adjacência local (CSR) restrita ao componente
+        final int[] offsets = new int[k + 1];
+        int[] targets = new int[Math.max(4, k)];
+        int edgeCount = 0;
+        for (int local = 0; local < k; local++) {
+            final int node = component[local];
+            for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                final int target = Arrays.binarySearch(component, graph.target(edge));
+                if (target >= 0) {
+                    if (edgeCount == targets.length) {
+                        targets = Arrays.copyOf(targets, edgeCount * 2);
+                    }
+                    targets[edgeCount++] = target;
+                }
+            }
+            offsets[local + 1] = edgeCount;
+        }
+
+        final boolean[] blocked = new boolean[k];
+        final BitSet[] blockedBy = new BitSet[k];
+        final int[] path = new int[k];
+        final int[] cursor = new int[k];
+        final boolean[] found = new boolean[k];
+        final int[] unblockStack = new int[k];
+        long cycles = 0;
+        long steps = 0;
+
+        for (int start = 0; start < k; start++) {
+            for (int i = start; i < k; i++) {
+                blocked[i] = false;
+                if (blockedBy[i] != null) {
+                    blockedBy[i].clear();
+                }
+            }
+
+            int depth = 0;
+            path[depth] = start;
+            cursor[depth] = offsets[start];
+            found[depth] = false;
+            blocked[start] = true;
+            depth++;
+
+            while (depth > 0) {
+                if (++steps % CLOCK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                    return Outcome.TIME_BUDGET;
+                }
+                final int top = depth - 1;
+                final int node = path[top];
+                if (cursor[top] < offsets[node + 1]) {
+                    final int next = targets[cursor[top]++];
+                    if (next < start) {
+                        continue;
+                    }
+                    if (next == start) {
+                        consumer.accept(toCycle(component, path, depth));
+                        found[top] = true;
+                        if (maxCycles > 0 && ++cycles >= maxCycles) {
+                            return Outcome.CYCLE_LIMIT;
+                        }
+                    } else if (!blocked[next]) {
+                        if (depth == lengthLimit) {
+                            // ramo podado: tratado como sucesso para não bloquear o nó
+                            found[top] = true;
+                        } else {
+                            path[depth] = next;
+                            cursor[depth] = offsets[next];
+                            found[depth] = false;
+                            blocked[next] = true;
+                            depth++;
+                        }
+                    }
+                    continue;
+                }
+
+                if (found[top]) {
+                    unblock(node, blocked, blockedBy, unblockStack);
+                } else {
+                    for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                        final int next = targets[edge];
+                        if (next >= start) {
+                            if (blockedBy[next] == null) {
+                                blockedBy[next] = new BitSet(k);
+                            }
+                            blockedBy[next].set(node);
+                        }
+                    }
+                }
+                depth--;
+                if (depth > 0 && found[top]) {
+                    found[depth - 1] = true;
+                }
+            }
+        }
+        return Outcome.COMPLETE;
+    }
+
+    /**
+     * Desbloqueia o nó e, em cascata, os nós que dependiam dele.
+     */
+    private static void unblock(final int node, final boolean[] blocked, final BitSet[] blockedBy,
+            final int[] stack) {
+        int top = 0;
+        blocked[node] = false;
+        stack[top++] = node;
+        while (top > 0) {
+            final int current = stack[--top];
+            final BitSet waiting = blockedBy[current];
+            if (waiting == null) {
+                continue;
+            }
+            for (int other = waiting.nextSetBit(0); other >= 0; other = waiting.nextSetBit(other + 1)) {
+                if (blocked[other]) {
+                    blocked[other] = false;
+                    stack[top++] = other;
+                }
+            }
+            waiting.clear();
+        }
+    }
+
+    private static int[] toCycle(final int[] component, final int[] path, final int depth) {
+        final int[] cycle = new int[depth + 1];
+        for (int i = 0; i < depth; i++) {
+            cycle[i] = component[path[i]];
+        }
+        cycle[depth] = cycle[0];
+        return cycle;
+    }
+}
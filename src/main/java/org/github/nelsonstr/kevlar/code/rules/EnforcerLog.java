@@ -0,0 +1,99 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.apache.maven.enforcer.rule.api.EnforcerLogger;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Adapts the {@link EnforcerLogger} of the Enforcer 3.x rules to the {@link Log}
+ * interface used by the analysis.
+ *
+ * @param logger logger of the rule
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+record EnforcerLog(EnforcerLogger logger) implements Log {
+
+    @Override
+    public boolean isDebugEnabled() {
+        return logger.isDebugEnabled();
+    }
+
+    @Override
+    public void debug(final CharSequence content) {
+        logger.debug(content);
+    }
+
+    @Override
+    public void debug(final CharSequence content, final Throwable error) {
+        logger.debug(withCause(content, error));
+    }
+
+    @Override
+    public void debug(final Throwable error) {
+        logger.debug(String.valueOf(error));
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return logger.isInfoEnabled();
+    }
+
+    @Override
+    public void info(final CharSequence content) {
+        logger.info(content);
+    }
+
+    @Override
+    public void info(final CharSequence content, final Throwable error) {
+        logger.info(withCause(content, error));
+    }
+
+    @Override
+    public void info(final Throwable error) {
+        logger.info(String.valueOf(error));
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return logger.isWarnEnabled();
+    }
+
+    @Override
+    public void warn(final CharSequence content) {
+        logger.warn(content);
+    }
+
+    @Override
+    public void warn(final CharSequence content, final Throwable error) {
+        logger.warn(withCause(content, error));
+    }
+
+    @Override
+    public void warn(final Throwable error) {
+        logger.warn(String.valueOf(error));
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return logger.isErrorEnabled();
+    }
+
+    @Override
+    public void error(final CharSequence content) {
+        logger.error(content);
+    }
+
+    @Override
+    public void error(final CharSequence content, final Throwable error) {
+        logger.error(withCause(content, error));
+    }
+
+    @Override
+    public void error(final Throwable error) {
+        logger.error(String.valueOf(error));
+    }
+
+    private static String withCause(final CharSequence content, final Throwable error) {
+        return error == null ? String.valueOf(content) : content + " (" + error + ")";
+    }
+}
@@ -0,0 +1,160 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled form of the {@code excludePatterns} configuration.
+ *
+ * <p>
+ * Patterns are compiled once. Those that are plain package names, optionally
+ * followed by {@code .*} (e.g. {@code com\.acme\.generated\..*}), go into a
+ * character trie; every other pattern is compiled on its own, so its groups and
+ * backreferences keep their numbers and a syntax error points at that pattern.
+ * Each distinct package name is evaluated only once and the answer is memoized, so
+ * the cost per file and per import is a hash lookup.
+ * </p>
+ *
+ * <p>
+ * Matching keeps the semantics of {@link java.util.regex.Matcher#matches()}: a
+ * pattern must match the whole package name.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class ExclusionMatcher {
+
+    private final TrieNode literals = new TrieNode();
+    private final List<Pattern> regexes;
+    private final boolean empty;
+    private final ConcurrentHashMap<String, Boolean> memo = new ConcurrentHashMap<>();
+
+    private ExclusionMatcher(final List<String> patterns) {
+        final List<Pattern> compiled = new ArrayList<>();
+        for (final String pattern : patterns) {
+            if (!addLiteral(pattern)) {
+                compiled.add(Pattern.compile(pattern));
+            }
+        }
+        this.regexes = List.copyOf(compiled);
+        this.empty = patterns.isEmpty();
+    }
+
+    /**
+     * Compila a lista de padrões de exclusão.
+     *
+     * @throws java.util.regex.PatternSyntaxException se algum padrão for inválido
+     */
+    static ExclusionMatcher compile(final List<String> patterns) {
+        return new ExclusionMatcher(patterns);
+    }
+
+    /**
+     * Verifica se o pacote deve ser excluído da análise.
+     */
+    boolean matches(final String packageName) {
+        if (empty) {
+            return false;
+        }
+        final Boolean cached = memo.get(packageName);
+        if (cached != null) {
+            return cached;
+        }
+        final boolean result = literals.matches(packageName) || matchesRegex(packageName);
+        memo.putIfAbsent(packageName, result);
+        return result;
+    }
+
+    private boolean matchesRegex(final String packageName) {
+        for (final Pattern regex : regexes) {
+            if (regex.matcher(packageName).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Insere o padrão na trie se for um nome literal, com ou sem {@code .*} no fim.
+     *
+     * @return {@code false} se o padrão precisar do motor de regex
+     */
+    private boolean addLiteral(final String pattern) {
+        final boolean prefix = pattern.endsWith(".*") && !pattern.endsWith("\\.*");
+        final int end = prefix ? pattern.length() - 2 : pattern.length();
+        final StringBuilder literal = new StringBuilder(end);
+        for (int i = 0; i < end; i++) {
+            final char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < end && pattern.charAt(i + 1) == '.') {
+                literal.append('.');
+                i++;
+            } else if (Character.isLetterOrDigit(c) || c == '_') {
+                literal.append(c);
+            } else {
+                return false;
+            }
+        }
+        literals.insert(literal, prefix);
+        return true;
+    }
+
+    /** Nó da trie de caracteres */
+    private static final class TrieNode {
+        private char[] keys = new char[0];
+        private TrieNode[] children = new TrieNode[0];
+        private boolean exactEnd;
+        private boolean prefixEnd;
+
+        void insert(final CharSequence literal, final boolean prefix) {
+            TrieNode node = this;
+            for (int i = 0; i < literal.length(); i++) {
+                node = node.childOrCreate(literal.charAt(i));
+            }
+            if (prefix) {
+                node.prefixEnd = true;
+            } else {
+                node.exactEnd = true;
+            }
+        }
+
+        boolean matches(final String name) {
+            TrieNode node = this;
+            for (int i = 0; i < name.length(); i++) {
+                if (node.prefixEnd) {
+                    return true;
+                }
+                node = node.child(name.charAt(i));
+                if (node == null) {
+                    return false;
+                }
+            }
+            return node.exactEnd || node.prefixEnd;
+        }
+
+        private TrieNode child(final char c) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private TrieNode childOrCreate(final char c) {
+            final TrieNode existing = child(c);
+            if (existing != null) {
+                return existing;
+            }
+            final TrieNode created = new TrieNode();
+            keys = Arrays.copyOf(keys, keys.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            keys[keys.length - 1] = c;
+            children[children.length - 1] = created;
+            return created;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.apache.maven.enforcer.rule.api.EnforcerRuleException;
+import org.apache.maven.project.MavenProject;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maven Enforcer 3.x rule that bans dependencies between packages, such as
+ * {@code ..domain.. -> java.sql, org.springframework}, without a second parse of
+ * the sources by Checkstyle's {@code IllegalImport}.
+ *
+ * <p>
+ * The rule is declared as {@code <forbiddenPackageDependencies>} and only checks
+ * the constraints (see {@link DependencyConstraints}); exceptions are listed under
+ * {@code allowed} in the same format. To check cycles and constraints together,
+ * set {@code forbiddenDependencies} on the cycle rule instead.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+//CHECKSTYLE:OFF
+@SuppressWarnings("PMD")
+@Named("forbiddenPackageDependencies")
+public class ForbiddenPackageDependencies extends AbstractScanRule {
+
+    /** Dependências proibidas, no formato {@code origem -> destino, destino...} (padrões de pacote) */
+    private List<String> forbidden = new ArrayList<>();
+
+    /** Exceções às dependências proibidas, no mesmo formato */
+    private List<String> allowed = new ArrayList<>();
+
+    /**
+     * @param project    projeto do módulo em execução
+     * @param modelCache cache em memória compartilhado pela JVM
+     */
+    @Inject
+    public ForbiddenPackageDependencies(final MavenProject project, final SourceModelCache modelCache) {
+        super(project, modelCache);
+    }
+
+    @Override
+    void configure(final NoCyclicPackageDependencyRule rule) throws EnforcerRuleException {
+        if (forbidden.isEmpty()) {
+            throw new EnforcerRuleException("forbidden must not be empty");
+        }
+        super.configure(rule);
+        rule.setCheckCycles(false);
+        rule.setForbiddenDependencies(forbidden);
+        rule.setAllowedDependencies(allowed);
+    }
+
+    @Override
+    public String toString() {
+        return "ForbiddenPackageDependencies[forbidden=%s, allowed=%s, analysisMode=%s]"
+                .formatted(forbidden, allowed, analysisMode());
+    }
+
+    // Configuration setters
+    public void setForbidden(final List<String> forbidden) {
+        this.forbidden = new ArrayList<>(forbidden);
+    }
+
+    public void setAllowed(final List<String> allowed) {
+        this.allowed = new ArrayList<>(allowed);
+    }
+}
@@ -0,0 +1,20 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import java.util.Set;
+
+/**
+ * The Git state a cached analysis corresponds to.
+ *
+ * @param commit     id of the commit checked out when the cache was written
+ * @param dirtyPaths absolute paths of the files that differed from that commit at
+ *                   the time, so they are checked again even if they are later
+ *                   reverted
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+record GitBaseline(String commit, Set<String> dirtyPaths) {
+
+    GitBaseline {
+        dirtyPaths = Set.copyOf(dirtyPaths);
+    }
+}
@@ -0,0 +1,176 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.api.StatusCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilter;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Finds the source files that changed since a previous analysis, using the Git
+ * repository that contains the source root.
+ *
+ * <p>
+ * Committed changes come from a tree diff between the analysed commit and
+ * {@code HEAD}, which skips every subtree whose id did not change, so its cost
+ * depends on the size of the change rather than on the size of the repository.
+ * Uncommitted changes come from {@code git status} restricted to the source root.
+ * Files that were dirty at the time of the previous analysis are always reported
+ * as well, since they may since have been reverted to the committed version.
+ * </p>
+ *
+ * <p>
+ * All paths are returned as absolute path strings under the source root as given,
+ * so they match the paths a directory walk of that root would produce. Files
+ * ignored by Git are not seen.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class GitChangeDetector implements AutoCloseable {
+
+    private final Repository repository;
+    private final Path sourceRoot;
+    /** Caminho da raiz dos fontes relativo à working tree, com '/' ("" se for a própria working tree) */
+    private final String relativeRoot;
+
+    private GitChangeDetector(final Repository repository, final Path sourceRoot, final String relativeRoot) {
+        this.repository = repository;
+        this.sourceRoot = sourceRoot;
+        this.relativeRoot = relativeRoot;
+    }
+
+    /**
+     * Abre o repositório que contém o diretório, ou retorna {@code null} se não
+     * houver um repositório com working tree que o contenha.
+     */
+    static GitChangeDetector open(final Path sourceRoot) throws IOException {
+        final FileRepositoryBuilder builder = new FileRepositoryBuilder()
+                .readEnvironment()
+                .findGitDir(sourceRoot.toFile());
+        if (builder.getGitDir() == null) {
+            return null;
+        }
+        final Repository repository = builder.build();
+        if (repository.isBare()) {
+            repository.close();
+            return null;
+        }
+        final Path workTree = repository.getWorkTree().toPath().toRealPath();
+        final Path realRoot = sourceRoot.toRealPath();
+        if (!realRoot.startsWith(workTree)) {
+            repository.close();
+            return null;
+        }
+        final String relativeRoot = workTree.relativize(realRoot).toString().replace('\\', '/');
+        return new GitChangeDetector(repository, sourceRoot, relativeRoot);
+    }
+
+    /**
+     * Estado atual: o commit em {@code HEAD} e os arquivos alterados em relação a
+     * ele. Retorna {@code null} se ainda não houver commits.
+     */
+    GitBaseline snapshot() throws IOException {
+        final ObjectId head = repository.resolve(Constants.HEAD);
+        if (head == null) {
+            return null;
+        }
+        final Status status;
+        try {
+            final StatusCommand command = Git.wrap(repository).status();
+            if (!relativeRoot.isEmpty()) {
+                command.addPath(relativeRoot);
+            }
+            status = command.call();
+        } catch (GitAPIException e) {
+            throw new IOException("Failed to read Git status", e);
+        }
+
+        final Set<String> dirtyPaths = new HashSet<>();
+        Stream.of(status.getAdded(), status.getChanged(), status.getModified(), status.getRemoved(),
+                status.getMissing(), status.getUntracked(), status.getConflicting())
+                .flatMap(Set::stream)
+                .map(this::toSourcePath)
+                .filter(Objects::nonNull)
+                .forEach(dirtyPaths::add);
+        return new GitBaseline(head.name(), dirtyPaths);
+    }
+
+    /**
+     * Arquivos que podem ter mudado entre os dois estados, ou {@code null} se o
+     * commit anterior não estiver mais disponível no repositório.
+     */
+    Set<String> changedSince(final GitBaseline previous, final GitBaseline current) throws IOException {
+        final Set<String> changed = new HashSet<>(previous.dirtyPaths());
+        changed.addAll(current.dirtyPaths());
+        if (previous.commit().equals(current.commit())) {
+            return changed;
+        }
+
+        final RevTree previousTree;
+        final RevTree currentTree;
+        try (RevWalk walk = new RevWalk(repository)) {
+            previousTree = walk.parseCommit(ObjectId.fromString(previous.commit())).getTree();
+            currentTree = walk.parseCommit(ObjectId.fromString(current.commit())).getTree();
+        } catch (IOException | IllegalArgumentException e) {
+            // commit removido (rebase, gc, clone raso): não há como comparar
+            return null;
+        }
+
+        try (DiffFormatter formatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+            formatter.setRepository(repository);
+            formatter.setPathFilter(relativeRoot.isEmpty()
+                    ? PathSuffixFilter.create(".java")
+                    : AndTreeFilter.create(PathFilter.create(relativeRoot), PathSuffixFilter.create(".java")));
+            for (final DiffEntry entry : formatter.scan(previousTree, currentTree)) {
+                addSourcePath(entry.getOldPath(), changed);
+                addSourcePath(entry.getNewPath(), changed);
+            }
+        }
+        return changed;
+    }
+
+    private void addSourcePath(final String gitPath, final Set<String> paths) {
+        final String path = DiffEntry.DEV_NULL.equals(gitPath) ? null : toSourcePath(gitPath);
+        if (path != null) {
+            paths.add(path);
+        }
+    }
+
+    /**
+     * Converte um caminho do Git no caminho equivalente sob a raiz dos fontes.
+     */
+    private String toSourcePath(final String gitPath) {
+        if (relativeRoot.isEmpty()) {
+            return sourceRoot.resolve(gitPath).toString();
+        }
+        if (!gitPath.startsWith(relativeRoot + "/")) {
+            return null;
+        }
+        return sourceRoot.resolve(gitPath.substring(relativeRoot.length() + 1)).toString();
+    }
+
+    @Override
+    public void close() {
+        repository.close();
+    }
+}
@@ -0,0 +1,270 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32C;
+
+/**
+ * Persistent per-file cache of scanned source headers, kept under {@code target/}.
+ *
+ * <p>
+ * For every file the cache stores its size, modification time, content hash,
+ * package, imports and whether it declares an abstract type. On the next run a
+ * file whose size and modification time are unchanged is taken from the cache
+ * without being opened; if only the modification time changed, the content hash
+ * decides, and a file without one (a large source whose body was never read) is
+ * read again. Files that no longer exist are simply not written back, so the
+ * cache never outgrows the source tree.
+ * </p>
+ *
+ * <p>
+ * The format is a compact binary file: a string table holding every distinct path,
+ * package and import name once, followed by the entries referring to it by index.
+ * When written by a Git-aware run, the cache also records the {@link GitBaseline} it
+ * corresponds to. A cache that cannot be read (missing, truncated or from another
+ * version) is treated as empty.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class ImportCache {
+
+    private static final int MAGIC = 0x4B564943; // "KVIC"
+    private static final int VERSION = 3;
+
+    private static final int FLAG_STATIC = 1;
+    private static final int FLAG_ON_DEMAND = 2;
+
+    private final Map<String, SourceFile> entries;
+
+    /** Estado do Git na gravação, ou {@code null} */
+    private final GitBaseline baseline;
+
+    /** Se alguma entrada teve a data de modificação atualizada */
+    private final AtomicBoolean refreshed = new AtomicBoolean();
+
+    private ImportCache(final Map<String, SourceFile> entries, final GitBaseline baseline) {
+        this.entries = entries;
+        this.baseline = baseline;
+    }
+
+    /**
+     * Cache vazio.
+     */
+    static ImportCache empty() {
+        return new ImportCache(Map.of(), null);
+    }
+
+    /**
+     * Número de arquivos no cache.
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Todas as entradas, sem verificar os arquivos em disco.
+     */
+    Collection<SourceFile> entries() {
+        return entries.values();
+    }
+
+    /**
+     * Estado do Git em que o cache foi gravado, ou {@code null}.
+     */
+    GitBaseline baseline() {
+        return baseline;
+    }
+
+    /**
+     * Retorna a entrada do arquivo se ele não mudou, ou {@code null}.
+     */
+    SourceFile lookup(final Path file, final long size, final long lastModified) throws IOException {
+        final SourceFile cached = entries.get(file.toString());
+        if (cached == null || cached.size() != size) {
+            return null;
+        }
+        if (cached.lastModified() == lastModified) {
+            return cached;
+        }
+        if (!cached.isHashed() || contentHash(file) != cached.contentHash()) {
+            return null;
+        }
+        refreshed.set(true);
+        return cached.withLastModified(lastModified);
+    }
+
+    /**
+     * Se o cache precisa ser regravado após uma varredura com {@code parsed} arquivos
+     * lidos e {@code scanned} arquivos no total.
+     */
+    boolean isStale(final int parsed, final int scanned) {
+        return parsed > 0 || scanned != entries.size() || refreshed.get();
+    }
+
+    /**
+     * CRC32C do conteúdo completo do arquivo.
+     */
+    static long contentHash(final Path file) throws IOException {
+        final CRC32C crc = new CRC32C();
+        final byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Carrega o cache; qualquer falha de leitura resulta num cache vazio.
+     */
+    static ImportCache load(final Path cacheFile, final NameInterner interner) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return empty();
+            }
+            final String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = interner.intern(in.readUTF());
+            }
+
+            final int count = in.readInt();
+            final Map<String, SourceFile> entries = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                final String path = strings[in.readInt()];
+                final long size = in.readLong();
+                final long lastModified = in.readLong();
+                final long hash = in.readLong();
+                final String packageName = string(strings, in.readInt());
+                final boolean abstractType = in.readBoolean();
+                final int importCount = in.readInt();
+                final List<ImportDeclaration> imports = new ArrayList<>(importCount);
+                for (int j = 0; j < importCount; j++) {
+                    final String name = string(strings, in.readInt());
+                    final String qualifier = string(strings, in.readInt());
+                    final int flags = in.readByte();
+                    imports.add(new ImportDeclaration(name, qualifier,
+                            (flags & FLAG_STATIC) != 0, (flags & FLAG_ON_DEMAND) != 0));
+                }
+                entries.put(path, new SourceFile(Paths.get(path), size, lastModified, hash,
+                        new SourceHeader(packageName, imports, abstractType)));
+            }
+
+            GitBaseline baseline = null;
+            if (in.readBoolean()) {
+                final String commit = in.readUTF();
+                final int dirtyCount = in.readInt();
+                final Set<String> dirtyPaths = new HashSet<>(dirtyCount * 2);
+                for (int i = 0; i < dirtyCount; i++) {
+                    dirtyPaths.add(in.readUTF());
+                }
+                baseline = new GitBaseline(commit, dirtyPaths);
+            }
+            return new ImportCache(entries, baseline);
+        } catch (NoSuchFileException e) {
+            return empty();
+        } catch (IOException | RuntimeException e) {
+            // cache corrompido ou incompatível: recomeça do zero
+            return empty();
+        }
+    }
+
+    /**
+     * Grava o cache com os arquivos dados, substituindo o anterior de forma atômica.
+     */
+    static void save(final Path cacheFile, final Collection<SourceFile> files) throws IOException {
+        save(cacheFile, files, null);
+    }
+
+    /**
+     * Grava o cache junto com o estado do Git a que ele corresponde.
+     */
+    static void save(final Path cacheFile, final Collection<SourceFile> files, final GitBaseline baseline)
+            throws IOException {
+        final Map<String, Integer> indexes = new HashMap<>();
+        final List<String> strings = new ArrayList<>();
+        for (final SourceFile file : files) {
+            index(file.path().toString(), indexes, strings);
+            index(file.header().packageName(), indexes, strings);
+            for (final ImportDeclaration importDecl : file.header().imports()) {
+                index(importDecl.name(), indexes, strings);
+                index(importDecl.qualifier(), indexes, strings);
+            }
+        }
+
+        Files.createDirectories(cacheFile.getParent());
+        final Path temp = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(strings.size());
+                for (final String string : strings) {
+                    out.writeUTF(string);
+                }
+                out.writeInt(files.size());
+                for (final SourceFile file : files) {
+                    out.writeInt(indexes.get(file.path().toString()));
+                    out.writeLong(file.size());
+                    out.writeLong(file.lastModified());
+                    out.writeLong(file.contentHash());
+                    out.writeInt(indexOf(file.header().packageName(), indexes));
+                    out.writeBoolean(file.header().abstractType());
+                    out.writeInt(file.header().imports().size());
+                    for (final ImportDeclaration importDecl : file.header().imports()) {
+                        out.writeInt(indexOf(importDecl.name(), indexes));
+                        out.writeInt(indexOf(importDecl.qualifier(), indexes));
+                        out.writeByte((importDecl.staticImport() ? FLAG_STATIC : 0)
+                                | (importDecl.onDemand() ? FLAG_ON_DEMAND : 0));
+                    }
+                }
+                out.writeBoolean(baseline != null);
+                if (baseline != null) {
+                    out.writeUTF(baseline.commit());
+                    out.writeInt(baseline.dirtyPaths().size());
+                    for (final String dirtyPath : baseline.dirtyPaths()) {
+                        out.writeUTF(dirtyPath);
+                    }
+                }
+            }
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void index(final String value, final Map<String, Integer> indexes, final List<String> strings) {
+        if (value != null && !indexes.containsKey(value)) {
+            indexes.put(value, strings.size());
+            strings.add(value);
+        }
+    }
+
+    private static int indexOf(final String value, final Map<String, Integer> indexes) {
+        return value == null ? -1 : indexes.get(value);
+    }
+
+    private static String string(final String[] strings, final int index) {
+        return index < 0 ? null : strings[index];
+    }
+}
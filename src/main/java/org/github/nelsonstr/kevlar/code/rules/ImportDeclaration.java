@@ -0,0 +1,33 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+/**
+ * A single {@code import} declaration from a compilation-unit header.
+ *
+ * <p>
+ * The name never includes the trailing {@code .*} of an on-demand import nor the
+ * {@code static} keyword; both are carried as flags instead.
+ * </p>
+ *
+ * @param name         qualified name as written, e.g. {@code a.b.C} or {@code a.b}
+ *                     for {@code import a.b.*;}
+ * @param qualifier    the name without its last segment, or {@code null} if the name
+ *                     has a single segment
+ * @param staticImport whether this is an {@code import static} declaration
+ * @param onDemand     whether the declaration ends with {@code .*}
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+record ImportDeclaration(String name, String qualifier, boolean staticImport, boolean onDemand) {
+
+    /**
+     * Cria a declaração calculando o qualificador a partir do nome.
+     */
+    ImportDeclaration(final String name, final boolean staticImport, final boolean onDemand) {
+        this(name, qualifierOf(name), staticImport, onDemand);
+    }
+
+    private static String qualifierOf(final String name) {
+        final int lastDot = name.lastIndexOf('.');
+        return lastDot == -1 ? null : name.substring(0, lastDot);
+    }
+}
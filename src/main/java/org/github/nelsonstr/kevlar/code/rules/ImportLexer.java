@@ -0,0 +1,443 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.Checksum;
+
+/**
+ * Minimal byte-level lexer for the header of a Java compilation unit.
+ *
+ * <p>
+ * Only the {@code package} and {@code import} declarations are recognised. Comments,
+ * string and character literals and text blocks are skipped, so commented-out
+ * imports are not reported. Reading stops at the first top-level type declaration
+ * ({@code class}, {@code interface}, {@code enum}, {@code record} or
+ * {@code @interface}), which means the body of large files is never read. The
+ * modifiers seen before that keyword tell whether the type is abstract.
+ * </p>
+ *
+ * <p>
+ * The lexer works directly on bytes: small files are read through a
+ * {@link FileChannel} into pooled direct buffers and large ones are memory-mapped.
+ * Keywords are compared as bytes and names go through a {@link NameInterner}, so
+ * the only strings created are for names that have not been seen before. The
+ * bytes read through the channel are also passed to a {@link Checksum}, so the
+ * caller can hash the content of a small file without opening it again. Since
+ * Java keywords and separators are ASCII, any non-ASCII byte is simply treated as
+ * part of an identifier, which makes the lexer indifferent to the file encoding.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class ImportLexer {
+
+    /** Arquivos a partir deste tamanho são mapeados em memória */
+    static final long MAP_THRESHOLD = 1L << 20;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 64;
+    private static final Queue<ByteBuffer> BUFFER_POOL = new ConcurrentLinkedQueue<>();
+
+    private static final int EOF = -1;
+    private static final int IDENTIFIER = -2;
+    private static final int NONE = -3;
+
+    private static final byte[] PACKAGE = ascii("package");
+    private static final byte[] IMPORT = ascii("import");
+    private static final byte[] STATIC = ascii("static");
+    private static final byte[] ABSTRACT = ascii("abstract");
+    private static final byte[] INTERFACE = ascii("interface");
+    private static final byte[][] TYPE_KEYWORDS = {
+        ascii("class"), INTERFACE, ascii("enum"), ascii("record"), ascii("module")
+    };
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final NameInterner interner;
+
+    /** Recebe os bytes lidos do canal, ou {@code null} */
+    private final Checksum content;
+
+    /** Byte lido antecipadamente, ou {@link #NONE} */
+    private int pending = NONE;
+
+    /** Profundidade de parênteses (argumentos de anotações) */
+    private int parenDepth;
+
+    private byte[] token = new byte[64];
+    private int tokenLength;
+
+    private byte[] name = new byte[256];
+    private int nameLength;
+    private int lastDot;
+    private boolean onDemand;
+
+    private ImportLexer(final FileChannel channel, final ByteBuffer buffer, final NameInterner interner,
+            final Checksum content) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.interner = interner;
+        this.content = content;
+    }
+
+    /**
+     * Lê o cabeçalho de um arquivo Java.
+     */
+    static SourceHeader read(final Path file, final NameInterner interner) throws IOException {
+        return read(file, interner, null);
+    }
+
+    /**
+     * Lê o cabeçalho de um arquivo Java, passando a {@code content} os bytes lidos do
+     * canal; o corpo dos arquivos mapeados em memória não é lido nem passado.
+     */
+    static SourceHeader read(final Path file, final NameInterner interner, final Checksum content)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size >= MAP_THRESHOLD) {
+                final ByteBuffer mapped = map(channel, size);
+                if (mapped != null) {
+                    return new ImportLexer(null, mapped, interner, null).header();
+                }
+            }
+            final ByteBuffer pooled = acquireBuffer();
+            try {
+                return new ImportLexer(channel, pooled, interner, content).header();
+            } finally {
+                releaseBuffer(pooled);
+            }
+        }
+    }
+
+    /**
+     * Lê o cabeçalho a partir de um conteúdo já em memória.
+     */
+    static SourceHeader read(final ByteBuffer content, final NameInterner interner) throws IOException {
+        return new ImportLexer(null, content.slice(), interner, null).header();
+    }
+
+    private static ByteBuffer map(final FileChannel channel, final long size) throws IOException {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, Integer.MAX_VALUE));
+        } catch (UnsupportedOperationException e) {
+            // canais que não suportam mapeamento (ex.: arquivos dentro de um zip)
+            return null;
+        }
+    }
+
+    private static ByteBuffer acquireBuffer() {
+        final ByteBuffer pooled = BUFFER_POOL.poll();
+        final ByteBuffer buffer = pooled != null ? pooled : ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.clear().flip();
+        return buffer;
+    }
+
+    private static void releaseBuffer(final ByteBuffer buffer) {
+        if (BUFFER_POOL.size() < MAX_POOLED_BUFFERS) {
+            BUFFER_POOL.offer(buffer);
+        }
+    }
+
+    private SourceHeader header() throws IOException {
+        skipByteOrderMark();
+        String packageName = null;
+        final List<ImportDeclaration> imports = new ArrayList<>();
+        boolean abstractType = false;
+
+        int type;
+        while ((type = nextToken()) != EOF) {
+            if (parenDepth > 0) {
+                continue;
+            }
+            if (type == '{') {
+                break;
+            }
+            if (type != IDENTIFIER) {
+                continue;
+            }
+            if (tokenIs(PACKAGE)) {
+                readName();
+                if (nameLength > 0) {
+                    packageName = interner.intern(name, nameLength);
+                }
+            } else if (tokenIs(IMPORT)) {
+                readImport(imports);
+            } else if (tokenIs(ABSTRACT)) {
+                abstractType = true;
+            } else if (isTypeKeyword()) {
+                // interfaces e anotações ("@interface") também contam como abstratos
+                abstractType |= tokenIs(INTERFACE);
+                break;
+            }
+        }
+        return new SourceHeader(packageName, imports, abstractType);
+    }
+
+    /**
+     * Lê o restante de uma declaração {@code import}.
+     */
+    private void readImport(final List<ImportDeclaration> imports) throws IOException {
+        final int type = nextToken();
+        final boolean staticImport = type == IDENTIFIER && tokenIs(STATIC);
+        if (staticImport) {
+            readName();
+        } else {
+            readName(type);
+        }
+        if (nameLength > 0) {
+            final String qualifier = lastDot > 0 ? interner.intern(name, lastDot) : null;
+            imports.add(new ImportDeclaration(interner.intern(name, nameLength), qualifier, staticImport, onDemand));
+        }
+    }
+
+    private void readName() throws IOException {
+        readName(nextToken());
+    }
+
+    /**
+     * Acumula um nome qualificado terminado em {@code ;}, a partir do token dado.
+     */
+    private void readName(final int firstToken) throws IOException {
+        nameLength = 0;
+        lastDot = -1;
+        onDemand = false;
+        int type = firstToken;
+        while (type != EOF && type != ';') {
+            if (type == '*') {
+                onDemand = true;
+            } else if (type == IDENTIFIER) {
+                if (nameLength > 0) {
+                    lastDot = nameLength;
+                    appendName((byte) '.');
+                }
+                for (int i = 0; i < tokenLength; i++) {
+                    appendName(token[i]);
+                }
+            }
+            type = nextToken();
+        }
+    }
+
+    /**
+     * Retorna o tipo do próximo token relevante: {@link #IDENTIFIER} (bytes em
+     * {@link #token}), um caractere de pontuação ou {@link #EOF}. Comentários e
+     * literais são descartados.
+     */
+    private int nextToken() throws IOException {
+        while (true) {
+            final int c = next();
+            if (c == EOF) {
+                return EOF;
+            }
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f') {
+                continue;
+            }
+            if (c == '/') {
+                final int n = next();
+                if (n == '/') {
+                    skipLineComment();
+                    continue;
+                }
+                if (n == '*') {
+                    skipBlockComment();
+                    continue;
+                }
+                unread(n);
+                return c;
+            }
+            if (c == '"') {
+                skipString();
+                continue;
+            }
+            if (c == '\'') {
+                skipCharLiteral();
+                continue;
+            }
+            if (isIdentifierStart(c)) {
+                readIdentifier(c);
+                return IDENTIFIER;
+            }
+            if (c == '(') {
+                parenDepth++;
+            } else if (c == ')' && parenDepth > 0) {
+                parenDepth--;
+            } else if (c == '@' && parenDepth == 0) {
+                // o nome da anotação é descartado, exceto em "@interface"
+                if (nextToken() == IDENTIFIER && tokenIs(INTERFACE)) {
+                    return IDENTIFIER;
+                }
+                continue;
+            }
+            return c;
+        }
+    }
+
+    private void readIdentifier(final int first) throws IOException {
+        tokenLength = 0;
+        int c = first;
+        while (c != EOF && isIdentifierPart(c)) {
+            if (tokenLength == token.length) {
+                token = Arrays.copyOf(token, tokenLength * 2);
+            }
+            token[tokenLength++] = (byte) c;
+            c = next();
+        }
+        unread(c);
+    }
+
+    private void appendName(final byte b) {
+        if (nameLength == name.length) {
+            name = Arrays.copyOf(name, nameLength * 2);
+        }
+        name[nameLength++] = b;
+    }
+
+    private boolean tokenIs(final byte[] keyword) {
+        return Arrays.equals(token, 0, tokenLength, keyword, 0, keyword.length);
+    }
+
+    private boolean isTypeKeyword() {
+        for (final byte[] keyword : TYPE_KEYWORDS) {
+            if (tokenIs(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIdentifierStart(final int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == '$' || c >= 0x80;
+    }
+
+    private static boolean isIdentifierPart(final int c) {
+        return isIdentifierStart(c) || (c >= '0' && c <= '9');
+    }
+
+    private void skipByteOrderMark() throws IOException {
+        final int first = next();
+        if (first != 0xEF) {
+            unread(first);
+            return;
+        }
+        next();
+        next();
+    }
+
+    private void skipLineComment() throws IOException {
+        int c = next();
+        while (c != EOF && c != '\n' && c != '\r') {
+            c = next();
+        }
+    }
+
+    private void skipBlockComment() throws IOException {
+        int previous = 0;
+        int c = next();
+        while (c != EOF && !(previous == '*' && c == '/')) {
+            previous = c;
+            c = next();
+        }
+    }
+
+    /**
+     * Descarta um literal de string ou um text block; a aspa de abertura já foi lida.
+     */
+    private void skipString() throws IOException {
+        final int second = next();
+        if (second == '"') {
+            final int third = next();
+            if (third == '"') {
+                skipTextBlock();
+                return;
+            }
+            // string vazia ""
+            unread(third);
+            return;
+        }
+        int c = second;
+        while (c != EOF && c != '"' && c != '\n') {
+            if (c == '\\') {
+                next();
+            }
+            c = next();
+        }
+    }
+
+    private void skipTextBlock() throws IOException {
+        int quotes = 0;
+        int c = next();
+        while (c != EOF) {
+            if (c == '\\') {
+                next();
+                quotes = 0;
+            } else if (c == '"') {
+                if (++quotes == 3) {
+                    return;
+                }
+            } else {
+                quotes = 0;
+            }
+            c = next();
+        }
+    }
+
+    private void skipCharLiteral() throws IOException {
+        int c = next();
+        while (c != EOF && c != '\'' && c != '\n') {
+            if (c == '\\') {
+                next();
+            }
+            c = next();
+        }
+    }
+
+    private int next() throws IOException {
+        if (pending != NONE) {
+            final int c = pending;
+            pending = NONE;
+            return c;
+        }
+        if (!buffer.hasRemaining() && !fill()) {
+            return EOF;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Recarrega o buffer a partir do canal; retorna {@code false} no fim do arquivo.
+     */
+    private boolean fill() throws IOException {
+        if (channel == null) {
+            return false;
+        }
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        buffer.flip();
+        if (content != null) {
+            content.update(buffer.duplicate());
+        }
+        return read > 0;
+    }
+
+    private void unread(final int c) {
+        pending = c;
+    }
+
+    private static byte[] ascii(final String keyword) {
+        return keyword.getBytes(StandardCharsets.US_ASCII);
+    }
+}
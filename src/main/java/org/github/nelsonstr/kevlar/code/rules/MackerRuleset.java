@@ -0,0 +1,435 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * A Macker rules document ({@code <macker>} with one or more {@code <ruleset>}s),
+ * evaluated natively against the type graph.
+ *
+ * <p>
+ * Supported are {@code <var>}s (which callers may override), named
+ * {@code <pattern>}s, {@code class} patterns with {@code *} and {@code **},
+ * {@code <include>}/{@code <exclude>} lists, {@code <foreach>} with a
+ * {@code (**)} capture, and {@code <access-rule>}s with nested
+ * {@code <deny>}/{@code <allow>} blocks, a {@code <message>} and a
+ * {@code severity}. As in Macker, the last block that matches an access decides
+ * it. Filters ({@code subtype-of}, {@code interface}, ...) need type information
+ * the header scan does not collect; rules that use them are skipped with a warning.
+ * </p>
+ *
+ * <p>
+ * Every class pattern goes into one {@link ClassPatternTrie}. Each type of the
+ * graph is matched against it once, and every edge is then decided from the two
+ * match sets, so a check is a single linear pass over the edges, split across
+ * threads when there are many. References to external packages are matched as the
+ * pseudo-type {@code package.*}, since the graph keeps them by package only.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class MackerRuleset {
+
+    /** A partir deste número de arestas a verificação é paralela */
+    static final int PARALLEL_THRESHOLD = 50_000;
+
+    private static final Pattern VARIABLE = Pattern.compile("\\$\\{([^}]+)}");
+
+    /**
+     * Acesso proibido por uma regra.
+     *
+     * @param ruleset nome do conjunto de regras
+     * @param message mensagem da regra, com {@code ${from}} e {@code ${to}} resolvidos
+     * @param error   se a violação deve falhar o build (severidade acima de {@code warning})
+     * @param from    tipo de origem
+     * @param to      tipo (ou pseudo-tipo {@code pacote.*}) de destino
+     */
+    record Violation(String ruleset, String message, boolean error, String from, String to) {
+    }
+
+    /** Seletor de classes compilado: um padrão do trie ou uma lista de inclusões e exclusões */
+    private sealed interface Selector permits Glob, Composite, Unsupported {
+    }
+
+    private record Glob(int id) implements Selector {
+    }
+
+    private record Step(boolean include, Selector selector) {
+    }
+
+    private record Composite(List<Step> steps) implements Selector {
+    }
+
+    private record Unsupported(String reason) implements Selector {
+    }
+
+    /** Bloco {@code deny}/{@code allow}; seletores nulos casam com qualquer classe */
+    private record Block(boolean allow, Selector from, Selector to, List<Block> children) {
+    }
+
+    private record AccessRule(String ruleset, String message, boolean error, List<Block> blocks) {
+    }
+
+    private final Element root;
+    private final String location;
+
+    private MackerRuleset(final Element root, final String location) {
+        this.root = root;
+        this.location = location;
+    }
+
+    /**
+     * Lê um documento de regras.
+     *
+     * @param location origem do documento, para as mensagens
+     */
+    static MackerRuleset parse(final InputStream in, final String location) throws IOException {
+        try {
+            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+            factory.setExpandEntityReferences(false);
+            final Document document = factory.newDocumentBuilder().parse(in);
+            final Element root = document.getDocumentElement();
+            if (!"macker".equals(root.getTagName())) {
+                throw new IOException("Not a Macker ruleset: " + location);
+            }
+            return new MackerRuleset(root, location);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Invalid Macker ruleset " + location + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Verifica todas as arestas do grafo e retorna as violações na ordem dos tipos
+     * de origem, sem repetições.
+     *
+     * @param variables valores que substituem os dos {@code <var>} de mesmo nome
+     * @param warnings  recebe os avisos sobre regras ignoradas
+     * @throws IllegalArgumentException se o documento referir um padrão inexistente
+     *                                  ou tiver um padrão inválido
+     */
+    List<Violation> check(final TypeGraph graph, final Map<String, String> variables,
+            final Consumer<String> warnings) {
+        final String[] externalNames = new String[graph.externalCount()];
+        for (int external = 0; external < externalNames.length; external++) {
+            externalNames[external] = graph.externalName(external) + ".*";
+        }
+        final Set<String> names = new TreeSet<>(List.of(externalNames));
+        for (int node = 0; node < graph.size(); node++) {
+            names.add(graph.name(node));
+        }
+
+        final ClassPatternTrie trie = new ClassPatternTrie();
+        final List<AccessRule> rules = new ArrayList<>();
+        for (final Element ruleset : children(root, "ruleset")) {
+            final Scope scope = new Scope(ruleset.getAttribute("name"), variables, trie, names, rules, warnings);
+            scope.compile(ruleset);
+        }
+        if (rules.isEmpty()) {
+            return List.of();
+        }
+
+        final BitSet[] typeMatches = new BitSet[graph.size()];
+        for (int node = 0; node < typeMatches.length; node++) {
+            typeMatches[node] = trie.match(graph.name(node));
+        }
+        final BitSet[] externalMatches = new BitSet[externalNames.length];
+        for (int external = 0; external < externalMatches.length; external++) {
+            externalMatches[external] = trie.match(externalNames[external]);
+        }
+
+        IntStream nodes = IntStream.range(0, graph.size());
+        if (graph.edgeCount() + graph.externalEdgeCount() >= PARALLEL_THRESHOLD) {
+            nodes = nodes.parallel();
+        }
+        return nodes.boxed()
+                .flatMap(node -> {
+                    final List<Violation> found = new ArrayList<>();
+                    for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                        final int target = graph.target(edge);
+                        check(rules, graph.name(node), typeMatches[node], graph.name(target), typeMatches[target],
+                                found);
+                    }
+                    for (int edge = graph.externalEdgeStart(node); edge < graph.externalEdgeEnd(node); edge++) {
+                        final int target = graph.externalTarget(edge);
+                        check(rules, graph.name(node), typeMatches[node], externalNames[target],
+                                externalMatches[target], found);
+                    }
+                    return found.stream();
+                })
+                .distinct()
+                .toList();
+    }
+
+    private static void check(final List<AccessRule> rules, final String from, final BitSet fromMatches,
+            final String to, final BitSet toMatches, final List<Violation> found) {
+        if (from.equals(to)) {
+            return;
+        }
+        for (final AccessRule rule : rules) {
+            if (!allowed(rule.blocks(), fromMatches, toMatches, true)) {
+                final String message = rule.message().replace("${from}", from).replace("${to}", to);
+                found.add(new Violation(rule.ruleset(), message, rule.error(), from, to));
+            }
+        }
+    }
+
+    /**
+     * Avalia os blocos em ordem: o último que casa decide, e os blocos aninhados
+     * só são vistos quando o bloco que os contém casa.
+     */
+    private static boolean allowed(final List<Block> blocks, final BitSet from, final BitSet to,
+            final boolean current) {
+        boolean result = current;
+        for (final Block block : blocks) {
+            if (matches(block.from(), from) && matches(block.to(), to)) {
+                result = allowed(block.children(), from, to, block.allow());
+            }
+        }
+        return result;
+    }
+
+    private static boolean matches(final Selector selector, final BitSet matched) {
+        if (selector == null) {
+            return true;
+        }
+        if (selector instanceof Glob glob) {
+            return matched.get(glob.id());
+        }
+        boolean result = false;
+        for (final Step step : ((Composite) selector).steps()) {
+            if (matches(step.selector(), matched)) {
+                result = step.include();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return location;
+    }
+
+    /**
+     * Variáveis e padrões visíveis num ponto do documento; cada {@code <foreach>}
+     * trabalha numa cópia.
+     */
+    private static final class Scope {
+        private final String ruleset;
+        private final Map<String, String> overrides;
+        private final ClassPatternTrie trie;
+        private final Set<String> names;
+        private final List<AccessRule> rules;
+        private final Consumer<String> warnings;
+        private final Map<String, String> variables = new HashMap<>();
+        private final Map<String, Selector> patterns = new HashMap<>();
+
+        private Scope(final String ruleset, final Map<String, String> overrides, final ClassPatternTrie trie,
+                final Set<String> names, final List<AccessRule> rules, final Consumer<String> warnings) {
+            this.ruleset = ruleset;
+            this.overrides = overrides;
+            this.trie = trie;
+            this.names = names;
+            this.rules = rules;
+            this.warnings = warnings;
+        }
+
+        private Scope copy() {
+            final Scope copy = new Scope(ruleset, overrides, trie, names, rules, warnings);
+            copy.variables.putAll(variables);
+            copy.patterns.putAll(patterns);
+            return copy;
+        }
+
+        private void compile(final Element parent) {
+            for (final Element element : children(parent, null)) {
+                switch (element.getTagName()) {
+                    case "var" -> {
+                        final String name = element.getAttribute("name");
+                        variables.put(name, overrides.containsKey(name) ? overrides.get(name)
+                                : substitute(element.getAttribute("value")));
+                    }
+                    case "pattern" -> patterns.put(element.getAttribute("name"), selector(element));
+                    case "access-rule" -> accessRule(element);
+                    case "foreach" -> foreach(element);
+                    default -> {
+                        // elementos sem efeito nas regras de acesso
+                    }
+                }
+            }
+        }
+
+        /**
+         * Repete o corpo para cada valor distinto capturado por {@code (...)} no
+         * padrão, entre os nomes do grafo.
+         */
+        private void foreach(final Element element) {
+            final Pattern capture = Pattern.compile(regex(substitute(element.getAttribute("class"))));
+            final Set<String> values = new TreeSet<>();
+            for (final String name : names) {
+                final Matcher matcher = capture.matcher(name);
+                if (matcher.matches() && matcher.groupCount() > 0) {
+                    values.add(matcher.group(1));
+                }
+            }
+            for (final String value : values) {
+                final Scope scope = copy();
+                scope.variables.put(element.getAttribute("var"), value);
+                scope.compile(element);
+            }
+        }
+
+        private void accessRule(final Element element) {
+            final List<Element> messages = children(element, "message");
+            final String message = messages.isEmpty() ? "${from} may not access ${to}"
+                    : substitute(messages.get(0).getTextContent().trim());
+            final String severity = element.getAttribute("severity");
+            final boolean error = severity.isEmpty() || severity.equals("error") || severity.equals("fatal");
+            final List<String> unsupported = new ArrayList<>();
+            final List<Block> blocks = blocks(element, unsupported);
+            if (!unsupported.isEmpty()) {
+                warnings.accept("Skipping access rule '%s' in ruleset '%s': %s".formatted(message, ruleset,
+                        String.join(", ", unsupported)));
+                return;
+            }
+            rules.add(new AccessRule(ruleset, message, error, blocks));
+        }
+
+        private List<Block> blocks(final Element parent, final List<String> unsupported) {
+            final List<Block> blocks = new ArrayList<>();
+            for (final Element element : children(parent, null)) {
+                final boolean allow = element.getTagName().equals("allow");
+                if (!allow && !element.getTagName().equals("deny")) {
+                    continue;
+                }
+                final Selector from = side(element, "from", unsupported);
+                final Selector to = side(element, "to", unsupported);
+                blocks.add(new Block(allow, from, to, blocks(element, unsupported)));
+            }
+            return blocks;
+        }
+
+        private Selector side(final Element block, final String tag, final List<String> unsupported) {
+            final List<Element> elements = children(block, tag);
+            if (elements.isEmpty()) {
+                return null;
+            }
+            final Selector selector = selector(elements.get(0));
+            if (selector instanceof Unsupported reason) {
+                unsupported.add(reason.reason());
+            }
+            return selector;
+        }
+
+        /**
+         * Seletor dos atributos {@code pattern}/{@code class}/{@code filter} e dos
+         * filhos {@code include}/{@code exclude} do elemento.
+         */
+        private Selector selector(final Element element) {
+            final List<Step> steps = new ArrayList<>();
+            if (element.hasAttribute("filter")) {
+                return new Unsupported("filter '" + element.getAttribute("filter")
+                        + "' needs type information that is not scanned");
+            }
+            if (element.hasAttribute("pattern")) {
+                final String name = element.getAttribute("pattern");
+                final Selector named = patterns.get(name);
+                if (named == null) {
+                    if (name.equals("from") || name.equals("to")) {
+                        return new Unsupported("pattern '" + name + "' refers to the other side of the access");
+                    }
+                    throw new IllegalArgumentException("Unknown pattern '" + name + "' in ruleset '" + ruleset + "'");
+                }
+                steps.add(new Step(true, named));
+            }
+            if (element.hasAttribute("class")) {
+                steps.add(new Step(true, new Glob(trie.add(substitute(element.getAttribute("class"))))));
+            }
+            for (final Element child : children(element, null)) {
+                final boolean include = child.getTagName().equals("include");
+                if (include || child.getTagName().equals("exclude")) {
+                    steps.add(new Step(include, selector(child)));
+                }
+            }
+            for (final Step step : steps) {
+                if (step.selector() instanceof Unsupported) {
+                    return step.selector();
+                }
+            }
+            return steps.size() == 1 && steps.get(0).include() ? steps.get(0).selector() : new Composite(steps);
+        }
+
+        /**
+         * Substitui as variáveis conhecidas; as demais (como {@code ${from}})
+         * ficam como estão.
+         */
+        private String substitute(final String value) {
+            final Matcher matcher = VARIABLE.matcher(value);
+            final StringBuilder result = new StringBuilder();
+            while (matcher.find()) {
+                final String replacement = variables.get(matcher.group(1));
+                matcher.appendReplacement(result,
+                        Matcher.quoteReplacement(replacement != null ? replacement : matcher.group()));
+            }
+            return matcher.appendTail(result).toString();
+        }
+    }
+
+    /**
+     * Expressão regular de um padrão de {@code <foreach>}: {@code **} casa com
+     * qualquer sequência e {@code *} com qualquer sequência sem pontos.
+     */
+    private static String regex(final String pattern) {
+        final StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            final char c = pattern.charAt(i);
+            if (c == '*' && i + 1 < pattern.length() && pattern.charAt(i + 1) == '*') {
+                regex.append(".*");
+                i++;
+            } else if (c == '*') {
+                regex.append("[^.]*");
+            } else if (c == '(' || c == ')') {
+                regex.append(c);
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return regex.toString();
+    }
+
+    /**
+     * Filhos diretos do elemento com a tag dada (ou todos, se {@code null}).
+     */
+    private static List<Element> children(final Element parent, final String tag) {
+        final List<Element> result = new ArrayList<>();
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element element && (tag == null || element.getTagName().equals(tag))) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+}
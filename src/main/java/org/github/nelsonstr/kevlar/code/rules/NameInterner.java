@@ -0,0 +1,112 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe table that turns raw name bytes into shared {@link String} instances.
+ *
+ * <p>
+ * Lookups are done directly on the caller's byte array, so a {@code String} is only
+ * created the first time a given name is seen. Bytes are decoded as UTF-8 when they
+ * form valid UTF-8 and as ISO-8859-1 otherwise, so a badly encoded file never
+ * makes the scan fail.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class NameInterner {
+
+    /** Chave de consulta reutilizada por thread, para não alocar na busca */
+    private static final ThreadLocal<Key> PROBE = ThreadLocal.withInitial(Key::new);
+
+    private final ConcurrentHashMap<Key, String> names = new ConcurrentHashMap<>();
+
+    /**
+     * Retorna a String correspondente a {@code bytes[0..length)}.
+     */
+    String intern(final byte[] bytes, final int length) {
+        final Key probe = PROBE.get();
+        probe.set(bytes, length);
+        final String existing = names.get(probe);
+        if (existing != null) {
+            return existing;
+        }
+        final Key key = new Key();
+        key.set(Arrays.copyOf(bytes, length), length);
+        final String decoded = decode(bytes, length);
+        final String previous = names.putIfAbsent(key, decoded);
+        return previous != null ? previous : decoded;
+    }
+
+    /**
+     * Retorna a instância compartilhada de um nome já decodificado.
+     */
+    String intern(final String name) {
+        final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        return intern(bytes, bytes.length);
+    }
+
+    /**
+     * Número de nomes distintos já vistos.
+     */
+    int size() {
+        return names.size();
+    }
+
+    /**
+     * Decodifica como UTF-8 e, se os bytes forem inválidos, como Latin-1.
+     */
+    static String decode(final byte[] bytes, final int length) {
+        boolean ascii = true;
+        for (int i = 0; i < length && ascii; i++) {
+            ascii = bytes[i] >= 0;
+        }
+        if (ascii) {
+            return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+        }
+        try {
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(bytes, 0, length))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /** Chave comparada pelo conteúdo dos bytes */
+    private static final class Key {
+        private byte[] bytes;
+        private int length;
+        private int hash;
+
+        void set(final byte[] bytes, final int length) {
+            this.bytes = bytes;
+            this.length = length;
+            int h = 1;
+            for (int i = 0; i < length; i++) {
+                h = 31 * h + bytes[i];
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof Key other
+                    && hash == other.hash
+                    && Arrays.equals(bytes, 0, length, other.bytes, 0, other.length);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.apache.maven.enforcer.rule.api.EnforcerRuleException;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maven Enforcer 3.x rule to detect cyclic package dependencies.
+ *
+ * <p>
+ * This is the Enforcer 3.x counterpart of {@link NoCyclicPackageDependencyRule},
+ * with the same parameters and the same analysis; the scan parameters come from
+ * {@link AbstractScanRule}. It is declared in the enforcer configuration by name,
+ * as {@code <noCyclicPackageDependency>}, instead of by implementation class. The
+ * project and session are injected rather than evaluated from expressions, and the
+ * scanned files and package graphs are kept in a {@link SourceModelCache}
+ * singleton, so every later execution in the same JVM only re-reads the files that
+ * changed and reuses the graph when none did.
+ * </p>
+ *
+ * <p>
+ * Because the project is injected, the rule also takes part in the Enforcer result
+ * cache (see {@link AbstractScanRule#getCacheId()}): a module whose files did not
+ * change since its last successful check is skipped. The aggregate mode, access
+ * rules and metrics opt out, as their result depends on more than those files.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+//CHECKSTYLE:OFF
+@SuppressWarnings("PMD")
+@Named("noCyclicPackageDependency")
+public class NoCyclicPackageDependency extends AbstractScanRule {
+
+    private final MavenSession session;
+
+    /** Nome do projeto para análise */
+    private String projectName = "Unknown Project";
+
+    /** Número máximo de pacotes nos ciclos enumerados */
+    private int maxDepth = 10;
+
+    /** Arquivos zip/jar a analisar no lugar do diretório do projeto */
+    private List<String> archives = new ArrayList<>();
+
+    /**
+     * Granularidades verificadas: "type", "package" ou um número de segmentos do
+     * pacote; no modo source, "type" não vê ciclos dentro de um mesmo pacote
+     */
+    private List<String> granularities = new ArrayList<>(List.of("package"));
+
+    /** Se deve gravar as métricas dos pacotes em target/kevlar/package-metrics.csv */
+    private boolean metrics = false;
+
+    /** Distância máxima da sequência principal aceita em cada pacote (1 = sem limite) */
+    private double maxDistance = 1.0;
+
+    /** Acoplamento eferente máximo aceito em cada pacote (0 = sem limite) */
+    private int maxEfferentCoupling = 0;
+
+    /** Conjuntos de regras de acesso no formato do Macker, verificados na mesma varredura */
+    private List<String> accessRules = new ArrayList<>();
+
+    /** Valores que substituem as variáveis dos conjuntos de regras de acesso */
+    private Map<String, String> accessRuleVariables = new HashMap<>();
+
+    /** Dependências proibidas, no formato {@code origem -> destino, destino...} */
+    private List<String> forbiddenDependencies = new ArrayList<>();
+
+    /** Exceções às dependências proibidas */
+    private List<String> allowedDependencies = new ArrayList<>();
+
+    /** Se deve analisar o reactor inteiro de uma vez */
+    private boolean aggregate = false;
+
+    /** Se deve usar o Git para reler só os arquivos alterados */
+    private boolean gitIncremental = false;
+
+    /** Número máximo de ciclos reportados por emaranhado (0 = sem limite) */
+    private int maxCyclesPerComponent = 100;
+
+    /** Tempo máximo, em milissegundos, para enumerar os ciclos de cada emaranhado */
+    private long cycleSearchTimeout = 5000;
+
+    /**
+     * @param project    projeto do módulo em execução
+     * @param session    sessão do build
+     * @param modelCache cache em memória compartilhado pela JVM
+     */
+    @Inject
+    public NoCyclicPackageDependency(final MavenProject project, final MavenSession session,
+            final SourceModelCache modelCache) {
+        super(project, modelCache);
+        this.session = session;
+    }
+
+    @Override
+    void configure(final NoCyclicPackageDependencyRule rule) throws EnforcerRuleException {
+        if (aggregate && session == null) {
+            throw new EnforcerRuleException("aggregate requires a Maven session");
+        }
+        super.configure(rule);
+        rule.setProjectName(projectName);
+        rule.setMaxDepth(maxDepth);
+        rule.setArchives(archives);
+        rule.setGranularities(granularities);
+        rule.setMetrics(metrics);
+        rule.setMaxDistance(maxDistance);
+        rule.setMaxEfferentCoupling(maxEfferentCoupling);
+        rule.setAccessRules(accessRules);
+        rule.setAccessRuleVariables(accessRuleVariables);
+        rule.setForbiddenDependencies(forbiddenDependencies);
+        rule.setAllowedDependencies(allowedDependencies);
+        rule.setAggregate(aggregate);
+        rule.setGitIncremental(gitIncremental);
+        rule.setMaxCyclesPerComponent(maxCyclesPerComponent);
+        rule.setCycleSearchTimeout(cycleSearchTimeout);
+    }
+
+    @Override
+    MavenSession session() {
+        return session;
+    }
+
+    @Override
+    public String toString() {
+        return "NoCyclicPackageDependency[analysisMode=%s, maxDepth=%d, excludePatterns=%s, aggregate=%s]"
+                .formatted(analysisMode(), maxDepth, excludePatterns(), aggregate);
+    }
+
+    // Configuration setters
+    public void setProjectName(final String projectName) {
+        this.projectName = projectName;
+    }
+
+    public void setMaxDepth(final int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    public void setArchives(final List<String> archives) {
+        this.archives = new ArrayList<>(archives);
+    }
+
+    public void setGranularities(final List<String> granularities) {
+        this.granularities = new ArrayList<>(granularities);
+    }
+
+    public void setMetrics(final boolean metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setMaxDistance(final double maxDistance) {
+        this.maxDistance = maxDistance;
+    }
+
+    public void setMaxEfferentCoupling(final int maxEfferentCoupling) {
+        this.maxEfferentCoupling = maxEfferentCoupling;
+    }
+
+    public void setAccessRules(final List<String> accessRules) {
+        this.accessRules = new ArrayList<>(accessRules);
+    }
+
+    public void setAccessRuleVariables(final Map<String, String> accessRuleVariables) {
+        this.accessRuleVariables = new HashMap<>(accessRuleVariables);
+    }
+
+    public void setForbiddenDependencies(final List<String> forbiddenDependencies) {
+        this.forbiddenDependencies = new ArrayList<>(forbiddenDependencies);
+    }
+
+    public void setAllowedDependencies(final List<String> allowedDependencies) {
+        this.allowedDependencies = new ArrayList<>(allowedDependencies);
+    }
+
+    public void setAggregate(final boolean aggregate) {
+        this.aggregate = aggregate;
+    }
+
+    public void setGitIncremental(final boolean gitIncremental) {
+        this.gitIncremental = gitIncremental;
+    }
+
+    public void setMaxCyclesPerComponent(final int maxCyclesPerComponent) {
+        this.maxCyclesPerComponent = maxCyclesPerComponent;
+    }
+
+    public void setCycleSearchTimeout(final long cycleSearchTimeout) {
+        this.cycleSearchTimeout = cycleSearchTimeout;
+    }
+}
@@ -3,30 +3,46 @@ package org.github.nelsonstr.kevlar.code.rules;
 import org.apache.maven.enforcer.rule.api.EnforcerRule;
 import org.apache.maven.enforcer.rule.api.EnforcerRuleException;
 import org.apache.maven.enforcer.rule.api.EnforcerRuleHelper;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.configurator.expression.ExpressionEvaluationException;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.ProviderNotFoundException;
 import java.util.ArrayList;
-import java.util.stream.Stream;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Maven Enforcer Rule to detect cyclic package dependencies.
  * 
  * <p>
  * This rule scans Java source files for import statements and detects
- * circular dependencies between packages using depth-first search.
+ * circular dependencies between packages by computing the strongly connected
+ * components of the package graph. With {@code analysisMode} set to
+ * {@code bytecode}, the dependencies are read from the constant pools of the
+ * compiled classes instead, which also covers fully qualified references,
+ * same-package usages and generated code.
  * </p>
  * 
  * @author Nelson Str
@@ -36,20 +52,109 @@ import java.util.regex.Pattern;
 @SuppressWarnings("PMD")
 public class NoCyclicPackageDependencyRule implements EnforcerRule {
 
+    /** Número máximo de arquivos listados por dependência sugerida para corte */
+    private static final int MAX_CUT_FILES = 5;
+
+    /** Número máximo de ciclos de cada emaranhado copiados no relatório (todos vão para o log) */
+    private static final int MAX_REPORTED_CYCLES = 20;
+
     /** Nome do projeto para análise */
     private String projectName = "Unknown Project";
 
-    /** Profundidade máxima de análise */
+    /** Número máximo de pacotes nos ciclos enumerados (a detecção dos emaranhados é completa) */
     private int maxDepth = 10;
 
     /** Padrões de exclusão */
     private List<String> excludePatterns = new ArrayList<>();
 
+    /** Padrões de exclusão já compilados */
+    private ExclusionMatcher exclusionMatcher = ExclusionMatcher.compile(List.of());
+
     /** Se deve falhar em caso de erro */
     private boolean failOnError = true;
 
+    /** Número de threads usadas na leitura dos arquivos (1 = sequencial) */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /** Se deve reutilizar, entre execuções, os imports dos arquivos não alterados */
+    private boolean incrementalCache = true;
+
+    /** Origem das dependências: "source" (imports dos fontes) ou "bytecode" (classes compiladas) */
+    private String analysisMode = "source";
+
+    /** Arquivos zip/jar (fontes ou binários) a analisar no lugar do diretório do projeto */
+    private List<String> archives = new ArrayList<>();
+
+    /** Fontes de teste: "none", "separate" (camada própria) ou "combined" (no mesmo grafo dos principais) */
+    private String testSources = "none";
+
+    /**
+     * Granularidades verificadas: "type", "package" ou um número de segmentos do
+     * pacote. No modo source as arestas vêm só dos imports, e os tipos de um mesmo
+     * pacote não se importam: no nível "type", só o modo bytecode vê ciclos dentro
+     * de um pacote.
+     */
+    private List<String> granularities = new ArrayList<>(List.of("package"));
+
+    /** Se deve gravar as métricas dos pacotes (Ca, Ce, A, I, D) em target/kevlar/package-metrics.csv */
+    private boolean metrics = false;
+
+    /** Distância máxima da sequência principal aceita em cada pacote (1 = sem limite) */
+    private double maxDistance = 1.0;
+
+    /** Acoplamento eferente máximo aceito em cada pacote (0 = sem limite) */
+    private int maxEfferentCoupling = 0;
+
+    /** Conjuntos de regras de acesso no formato do Macker (arquivos do projeto ou recursos do classpath) */
+    private List<String> accessRules = new ArrayList<>();
+
+    /** Valores que substituem as variáveis ({@code <var>}) dos conjuntos de regras de acesso */
+    private Map<String, String> accessRuleVariables = new HashMap<>();
+
+    /** Dependências proibidas, no formato {@code origem -> destino, destino...} (padrões de pacote) */
+    private List<String> forbiddenDependencies = new ArrayList<>();
+
+    /** Exceções às dependências proibidas, no mesmo formato */
+    private List<String> allowedDependencies = new ArrayList<>();
+
+    /** Se deve procurar ciclos; desligado quando a regra só verifica as regras de dependência */
+    private boolean checkCycles = true;
+
+    /** Se deve analisar o reactor inteiro de uma vez, reportando em cada módulo só os seus ciclos */
+    private boolean aggregate = false;
+
+    /** Se deve usar o Git para reler só os arquivos alterados desde a última análise */
+    private boolean gitIncremental = false;
+
+    /** Número máximo de ciclos reportados por emaranhado (0 = sem limite) */
+    private int maxCyclesPerComponent = 100;
+
+    /** Tempo máximo, em milissegundos, para enumerar os ciclos de cada emaranhado (0 = sem limite) */
+    private long cycleSearchTimeout = 5000;
+
+    /** Arquivos zip/jar analisados na execução atual */
+    private List<Path> analysedArchives;
+
+    /** Impressão digital dos arquivos zip/jar analisados na execução atual */
+    private SourceFingerprint fingerprint;
+
+    /** Cache em memória compartilhado pelas execuções na mesma JVM, se houver */
+    private SourceModelCache modelCache;
+
+    /** Record para representar um emaranhado (componente fortemente conexo) de pacotes */
+    private record DependencyTangle(int index, List<String> packages, String unit) {
+        /**
+         * Formata o emaranhado para exibição.
+         * 
+         * @return String formatada do emaranhado
+         */
+        public String format() {
+            return "Tangle %d (%d %s): %s".formatted(index, packages.size(), unit, String.join(", ", packages));
+        }
+    }
+
     /** Record para representar um ciclo de dependências */
-    private record DependencyCycle(int index, List<String> packages) {
+    private record DependencyCycle(long index, List<String> packages) {
         /**
          * Formata o ciclo para exibição.
          * 
@@ -62,31 +167,66 @@ public class NoCyclicPackageDependencyRule implements EnforcerRule {
 
     @Override
     public void execute(final EnforcerRuleHelper helper) throws EnforcerRuleException {
-        final Log log = helper.getLog();
         final MavenProject project = validateAndGetProject(helper);
+        final MavenSession session = aggregate ? validateAndGetSession(helper) : null;
+        execute(project, session, helper.getLog());
+    }
 
+    /**
+     * Executa a análise para o projeto dado; a sessão só é usada no modo agregado.
+     */
+    void execute(final MavenProject project, final MavenSession session, final Log log)
+            throws EnforcerRuleException {
         try {
             logInfo(log, "Starting cyclic dependency analysis for: " + projectName);
 
-            final Path srcPath = getSourcePath(project);
-            if (!Files.exists(srcPath)) {
-                logWarn(log, "Source directory not found: " + srcPath);
+            if (!isSourceMode() && !isBytecodeMode()) {
+                throw new EnforcerRuleException("Unknown analysisMode '" + analysisMode
+                        + "' (expected 'source' or 'bytecode')");
+            }
+            if (!List.of("none", "separate", "combined").contains(testSources.toLowerCase(Locale.ROOT))) {
+                throw new EnforcerRuleException("Unknown testSources '" + testSources
+                        + "' (expected 'none', 'separate' or 'combined')");
+            }
+            if (isTestLayerEnabled() && (aggregate || !archives.isEmpty())) {
+                throw new EnforcerRuleException("testSources cannot be combined with aggregate or archives");
+            }
+            if (metrics && (aggregate || !archives.isEmpty())) {
+                throw new EnforcerRuleException("metrics cannot be combined with aggregate or archives");
+            }
+            if (!accessRules.isEmpty() && (aggregate || !archives.isEmpty())) {
+                throw new EnforcerRuleException("accessRules cannot be combined with aggregate or archives");
+            }
+            final DependencyConstraints constraints = compileConstraints();
+            if (!constraints.isEmpty() && (aggregate || !archives.isEmpty())) {
+                throw new EnforcerRuleException(
+                        "forbiddenDependencies cannot be combined with aggregate or archives");
+            }
+            final List<TypeGraph.Granularity> levels = parseGranularities();
+            if (isSourceMode() && levels.contains(TypeGraph.Granularity.TYPE)) {
+                logWarn(log, "Type level in source mode only sees imports: references between types of the same "
+                        + "package are not analysed (use analysisMode 'bytecode')");
+            }
+            if (aggregate) {
+                executeAggregate(session, project, log);
                 return;
             }
 
-            // Scan Java files and extract dependencies
-            final Map<String, Set<String>> dependencies = scanJavaFiles(srcPath);
-
-            // Detect cycles
-            final List<List<String>> cycles = detectCycles(dependencies);
-
-            if (cycles.isEmpty()) {
-                logInfo(log, "✅ No cyclic dependencies found");
+            final StringBuilder report = new StringBuilder();
+            if (!archives.isEmpty()) {
+                final TypeGraph graph = scanArchives(project, log);
+                checkLayer(report, "archives", "❌ Cyclic dependencies found", analysedArchives, fingerprint,
+                        () -> graph, type -> null, levels, log);
+            } else if (!analyseProject(project, levels, constraints, report, log)) {
                 return;
             }
 
-            // Report cycles
-            reportCycles(cycles, log);
+            if (report.isEmpty()) {
+                logInfo(log, checkCycles ? "✅ No cyclic dependencies found"
+                        : "✅ No dependency rule violations found");
+                return;
+            }
+            fail(report.toString(), log);
 
         } catch (IOException e) {
             logError(log, "IO error during analysis: " + e.getMessage(), e);
@@ -94,6 +234,378 @@ public class NoCyclicPackageDependencyRule implements EnforcerRule {
         }
     }
 
+    /**
+     * Analisa os diretórios do projeto: os fontes (ou classes) principais e, se
+     * configurado, os de teste como uma segunda camada do mesmo grafo. Cada arquivo
+     * é lido uma única vez, mesmo quando as camadas geram mais de um grafo, e o
+     * modelo lido é compartilhado com as outras regras do kevlar no mesmo build.
+     * Retorna {@code false} se nenhum dos diretórios existir.
+     */
+    private boolean analyseProject(final MavenProject project, final List<TypeGraph.Granularity> levels,
+            final DependencyConstraints constraints, final StringBuilder report, final Log log)
+            throws IOException, EnforcerRuleException {
+        final List<Path> roots = isBytecodeMode() ? List.of(getClassesPath(project)) : getSourceRoots(project);
+        final List<Path> testRoots = isTestLayerEnabled() ? getTestRoots(project, roots) : List.of();
+        final List<Path> allRoots = concat(roots, testRoots);
+        if (allRoots.stream().noneMatch(Files::exists)) {
+            logWarn(log, (isBytecodeMode() ? "Classes directory not found (has the project been compiled?): "
+                    : "Source directory not found: ")
+                    + String.join(", ", allRoots.stream().map(Path::toString).toList()));
+            return false;
+        }
+
+        // Scan Java files and extract dependencies, unless another rule already did
+        final SourceModel model = sourceModel(project, roots, testRoots, log);
+        final List<SourceFile> sources = model.sources();
+        final List<SourceFile> testFiles = model.testFiles();
+        final List<SourceFile> all = model.all();
+        final SourceFingerprint current = model.fingerprint();
+
+        final String exclusions = ":" + excludePatterns;
+        final Path baseDir = Paths.get(getProjectBaseDir(project));
+        if (testRoots.isEmpty()) {
+            final Supplier<TypeGraph> graph = memoize(() -> model.graph("main" + exclusions,
+                    () -> buildTypeGraph(sources, model.index("main" + exclusions, () -> indexTypes(sources)))));
+            checkLayer(report, "main", "❌ Cyclic dependencies found", allRoots, current, graph,
+                    sourceDescriber(baseDir, sources), levels, log);
+            checkMetrics(project, report, "main", allRoots, current, graph, sources, log);
+            checkAccessRules(project, report, graph, sources, log);
+            checkConstraints(project, report, constraints, graph, sources);
+            return true;
+        }
+
+        final TypeIndex mainIndex = model.index("main" + exclusions, () -> indexTypes(sources));
+        final TypeIndex testIndex = model.index("test" + exclusions, () -> indexTypes(testFiles));
+        final TypeIndex index = model.index("all" + exclusions, () -> indexTypes(all));
+        if (isCombinedTests()) {
+            final Supplier<TypeGraph> graph = memoize(() -> model.graph("combined" + exclusions,
+                    () -> buildTypeGraph(all, index)));
+            checkLayer(report, "combined", "❌ Cyclic dependencies found", allRoots, current, graph,
+                    sourceDescriber(baseDir, all), levels, log);
+            checkMetrics(project, report, "combined", allRoots, current, graph, all, log);
+            checkAccessRules(project, report, graph, all, log);
+            checkConstraints(project, report, constraints, graph, all);
+        } else {
+            final Supplier<TypeGraph> graph = memoize(() -> model.graph("main" + exclusions,
+                    () -> buildTypeGraph(sources, mainIndex)));
+            checkLayer(report, "main", "❌ Cyclic dependencies found", allRoots, current, graph,
+                    sourceDescriber(baseDir, sources), levels, log);
+            checkMetrics(project, report, "main", allRoots, current, graph, sources, log);
+            checkAccessRules(project, report, graph, sources, log);
+            checkConstraints(project, report, constraints, graph, sources);
+            // a camada de teste vê os tipos principais, mas só as suas próprias arestas
+            checkLayer(report, "test", "❌ Cyclic dependencies found in test sources", allRoots, current,
+                    () -> model.graph("test" + exclusions, () -> buildTypeGraph(testFiles, index)),
+                    sourceDescriber(baseDir, testFiles), levels, log);
+        }
+
+        final Set<String> leaks = mainToTestReferences(sources, mainIndex, testIndex);
+        if (!leaks.isEmpty()) {
+            report.append("❌ Main sources depend on test sources:\n");
+            leaks.forEach(leak -> report.append("  ").append(leak).append('\n'));
+        }
+        return true;
+    }
+
+    /**
+     * Modelo dos fontes do projeto: o que outra regra do kevlar já leu neste build,
+     * se os arquivos não mudaram desde então, ou uma nova leitura.
+     */
+    private SourceModel sourceModel(final MavenProject project, final List<Path> roots, final List<Path> testRoots,
+            final Log log) throws IOException {
+        final String key = SourceModel.class.getName() + ":" + analysisMode + ":" + roots + ":" + testRoots;
+        final List<Path> allRoots = concat(roots, testRoots);
+        return SourceModel.shared(project, key, model -> {
+            try {
+                if (model.fingerprint().isCurrent(listSourceFiles(allRoots))) {
+                    logInfo(log, "Reusing %d source files scanned by an earlier rule"
+                            .formatted(model.fingerprint().size()));
+                    return true;
+                }
+                return false;
+            } catch (IOException | UncheckedIOException e) {
+                return false;
+            }
+        }, () -> new SourceModel(scanJavaFiles(roots, incrementalCache ? getCacheFile(project) : null, log),
+                testRoots.isEmpty() ? List.of()
+                        : scanJavaFiles(testRoots, incrementalCache ? getTestCacheFile(project) : null, log)));
+    }
+
+    /**
+     * Referências dos fontes principais a tipos ou pacotes que só existem nos
+     * fontes de teste, no formato {@code tipo → import}.
+     */
+    private Set<String> mainToTestReferences(final List<SourceFile> sources, final TypeIndex mainIndex,
+            final TypeIndex testIndex) {
+        final Set<String> leaks = new TreeSet<>();
+        for (final SourceFile source : sources) {
+            final String packageName = packageOf(source);
+            if (packageName == null) {
+                continue;
+            }
+            for (final ImportDeclaration importDecl : source.header().imports()) {
+                if (declares(testIndex, importDecl) && !declares(mainIndex, importDecl)) {
+                    leaks.add(packageName + "." + typeNameOf(source.path()) + " → " + importDecl.name());
+                }
+            }
+        }
+        return leaks;
+    }
+
+    /**
+     * Se o import nomeia um tipo ou pacote conhecido pelo índice.
+     */
+    private static boolean declares(final TypeIndex index, final ImportDeclaration importDecl) {
+        return index.ownerOf(importDecl.name()) != null
+                || importDecl.onDemand() && !importDecl.staticImport() && index.isPackage(importDecl.name());
+    }
+
+    /**
+     * Verifica uma camada em cada granularidade configurada. O grafo de tipos só é
+     * montado se alguma projeção não estiver no cache em memória, ou para apontar os
+     * arquivos das dependências sugeridas para corte.
+     */
+    private void checkLayer(final StringBuilder report, final String layer, final String title,
+            final List<Path> roots, final SourceFingerprint sources, final Supplier<TypeGraph> typeGraph,
+            final Function<String, String> sourceOf, final List<TypeGraph.Granularity> levels, final Log log) {
+        if (!checkCycles) {
+            return;
+        }
+        for (final TypeGraph.Granularity level : levels) {
+            final PackageGraph graph = cachedGraph(layer + ":" + level, roots, sources,
+                    () -> typeGraph.get().project(level));
+            logGraph(log, graph, level);
+            appendCycles(report, title + levelSuffix(level) + ":", level.unit(), graph,
+                    StronglyConnectedComponents.find(graph), null, null,
+                    cuts -> cutOrigins(typeGraph.get(), level, graph, cuts, sourceOf), log);
+        }
+    }
+
+    /**
+     * Calcula as métricas dos pacotes da camada a partir da projeção por pacote,
+     * grava o arquivo de métricas e reporta os pacotes fora dos limites.
+     */
+    private void checkMetrics(final MavenProject project, final StringBuilder report, final String layer,
+            final List<Path> roots, final SourceFingerprint sources, final Supplier<TypeGraph> typeGraph,
+            final List<SourceFile> files, final Log log) throws IOException {
+        if (!metrics) {
+            return;
+        }
+        final PackageGraph graph = cachedGraph(layer + ":" + TypeGraph.Granularity.PACKAGE, roots, sources,
+                () -> typeGraph.get().project(TypeGraph.Granularity.PACKAGE));
+        final int[] concreteTypes = new int[graph.size()];
+        final int[] abstractTypes = new int[graph.size()];
+        for (final SourceFile file : files) {
+            final String packageName = packageOf(file);
+            if (packageName == null || typeNameOf(file.path()).equals("package-info")) {
+                continue;
+            }
+            final int node = graph.id(packageName);
+            if (file.header().abstractType()) {
+                abstractTypes[node]++;
+            } else {
+                concreteTypes[node]++;
+            }
+        }
+
+        final List<PackageMetrics.Entry> entries = PackageMetrics.compute(graph, concreteTypes, abstractTypes);
+        final Path metricsFile = getCacheFile(project).resolveSibling("package-metrics.csv");
+        PackageMetrics.write(metricsFile, entries);
+        logInfo(log, "Package metrics for %d packages written to %s".formatted(entries.size(), metricsFile));
+
+        final List<String> violations = new ArrayList<>();
+        for (final PackageMetrics.Entry entry : entries) {
+            if (entry.totalTypes() > 0 && entry.distance() > maxDistance) {
+                violations.add(String.format(Locale.ROOT, "%s: distance from the main sequence %.2f > %.2f",
+                        entry.packageName(), entry.distance(), maxDistance));
+            }
+            if (maxEfferentCoupling > 0 && entry.efferent() > maxEfferentCoupling) {
+                violations.add("%s: efferent coupling %d > %d".formatted(entry.packageName(), entry.efferent(),
+                        maxEfferentCoupling));
+            }
+        }
+        if (!violations.isEmpty()) {
+            report.append("❌ Package metrics out of bounds:\n");
+            violations.forEach(violation -> report.append("  ").append(violation).append('\n'));
+        }
+    }
+
+    /**
+     * Verifica cada aresta do grafo de tipos contra os conjuntos de regras de acesso.
+     * Violações de severidade {@code warning} ou menor são só logadas.
+     */
+    private void checkAccessRules(final MavenProject project, final StringBuilder report,
+            final Supplier<TypeGraph> typeGraph, final List<SourceFile> files, final Log log)
+            throws IOException, EnforcerRuleException {
+        if (accessRules.isEmpty()) {
+            return;
+        }
+        final Path baseDir = Paths.get(getProjectBaseDir(project));
+        final Map<String, Path> sourceOf = sourcesByType(files);
+        final TypeGraph graph = typeGraph.get();
+        final Set<String> errors = new TreeSet<>();
+        final Set<String> warnings = new TreeSet<>();
+        for (final String location : accessRules) {
+            final MackerRuleset ruleset;
+            try {
+                ruleset = loadRuleset(baseDir, location);
+            } catch (IOException e) {
+                throw new EnforcerRuleException("Cannot read access ruleset " + location + ": " + e.getMessage(), e);
+            }
+            final List<MackerRuleset.Violation> violations;
+            try {
+                violations = ruleset.check(graph, accessRuleVariables, warning -> logWarn(log, warning));
+            } catch (IllegalArgumentException e) {
+                throw new EnforcerRuleException("Invalid access ruleset " + location + ": " + e.getMessage(), e);
+            }
+            for (final MackerRuleset.Violation violation : violations) {
+                final String line = "[%s] %s: %s → %s (%s)".formatted(violation.ruleset(), violation.message(),
+                        violation.from(), violation.to(), describeSource(baseDir, sourceOf.get(violation.from())));
+                (violation.error() ? errors : warnings).add(line);
+            }
+        }
+        warnings.forEach(warning -> logWarn(log, "Access rule warning " + warning));
+        if (!errors.isEmpty()) {
+            report.append("❌ Access rule violations:\n");
+            errors.forEach(error -> report.append("  ").append(error).append('\n'));
+        }
+    }
+
+    /**
+     * Verifica cada aresta do grafo de tipos contra as dependências proibidas e
+     * permitidas, reportando a restrição violada e o arquivo de origem.
+     */
+    private void checkConstraints(final MavenProject project, final StringBuilder report,
+            final DependencyConstraints constraints, final Supplier<TypeGraph> typeGraph,
+            final List<SourceFile> files) {
+        if (constraints.isEmpty()) {
+            return;
+        }
+        final Path baseDir = Paths.get(getProjectBaseDir(project));
+        final Map<String, Path> sourceOf = sourcesByType(files);
+        final Set<String> violations = new TreeSet<>();
+        for (final DependencyConstraints.Violation violation : constraints.check(typeGraph.get())) {
+            violations.add("[%s] %s → %s (%s)".formatted(violation.constraint(), violation.from(), violation.to(),
+                    describeSource(baseDir, sourceOf.get(violation.from()))));
+        }
+        if (!violations.isEmpty()) {
+            report.append("❌ Forbidden dependencies:\n");
+            violations.forEach(violation -> report.append("  ").append(violation).append('\n'));
+        }
+    }
+
+    /**
+     * Compila as dependências proibidas e permitidas configuradas.
+     */
+    private DependencyConstraints compileConstraints() throws EnforcerRuleException {
+        try {
+            return DependencyConstraints.compile(forbiddenDependencies, allowedDependencies);
+        } catch (IllegalArgumentException e) {
+            throw new EnforcerRuleException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Arquivo de cada tipo declarado pelos fontes, pelo nome completo.
+     */
+    private Map<String, Path> sourcesByType(final List<SourceFile> files) {
+        final Map<String, Path> sourceOf = new HashMap<>(files.size() * 2);
+        for (final SourceFile file : files) {
+            final String packageName = packageOf(file);
+            if (packageName != null) {
+                sourceOf.put(packageName + "." + typeNameOf(file.path()), file.path());
+            }
+        }
+        return sourceOf;
+    }
+
+    /**
+     * Caminho do arquivo para o relatório, relativo ao projeto quando possível.
+     */
+    private static String describeSource(final Path baseDir, final Path source) {
+        if (source == null) {
+            return "unknown source";
+        }
+        return (source.startsWith(baseDir) ? baseDir.relativize(source) : source).toString();
+    }
+
+    /**
+     * Lê um conjunto de regras de acesso: um arquivo relativo ao projeto ou, se não
+     * existir, um recurso do classpath (como os {@code macker/*.xml} do plugin).
+     */
+    private static MackerRuleset loadRuleset(final Path baseDir, final String location) throws IOException {
+        final Path file = baseDir.resolve(location);
+        if (Files.isRegularFile(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                return MackerRuleset.parse(in, file.toString());
+            }
+        }
+        final String resource = location.startsWith("/") ? location.substring(1) : location;
+        try (InputStream in = NoCyclicPackageDependencyRule.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new NoSuchFileException(location, null, "access ruleset not found");
+            }
+            return MackerRuleset.parse(in, location);
+        }
+    }
+
+    /**
+     * Fornecedor que calcula o valor uma única vez, na primeira chamada.
+     */
+    private static <T> Supplier<T> memoize(final Supplier<T> supplier) {
+        final List<T> value = new ArrayList<>(1);
+        return () -> {
+            if (value.isEmpty()) {
+                value.add(supplier.get());
+            }
+            return value.get(0);
+        };
+    }
+
+    private static String levelSuffix(final TypeGraph.Granularity level) {
+        if (level.equals(TypeGraph.Granularity.PACKAGE)) {
+            return "";
+        }
+        return level.equals(TypeGraph.Granularity.TYPE) ? " at type level"
+                : " at " + level.segments() + "-segment package prefix level";
+    }
+
+    /**
+     * Lê as granularidades configuradas, sem repetições.
+     */
+    private List<TypeGraph.Granularity> parseGranularities() throws EnforcerRuleException {
+        try {
+            final List<TypeGraph.Granularity> levels = granularities.stream()
+                    .map(TypeGraph.Granularity::parse)
+                    .distinct()
+                    .toList();
+            if (levels.isEmpty()) {
+                throw new EnforcerRuleException("granularities must not be empty");
+            }
+            return levels;
+        } catch (IllegalArgumentException e) {
+            throw new EnforcerRuleException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Grafo do cache em memória, se houver, ou montado na hora.
+     */
+    private PackageGraph cachedGraph(final String layer, final List<Path> roots, final SourceFingerprint sources,
+            final Supplier<PackageGraph> builder) {
+        return modelCache == null ? builder.get() : modelCache.graph(layer + ":" + graphKey(roots, sources), builder);
+    }
+
+    private static <T> List<T> concat(final List<T> first, final List<T> second) {
+        if (second.isEmpty()) {
+            return first;
+        }
+        final List<T> result = new ArrayList<>(first.size() + second.size());
+        result.addAll(first);
+        result.addAll(second);
+        return result;
+    }
+
     /**
      * Valida e obtém o projeto Maven.
      */
@@ -106,6 +618,17 @@ public class NoCyclicPackageDependencyRule implements EnforcerRule {
         }
     }
 
+    /**
+     * Obtém a sessão Maven, usada pelo modo agregado.
+     */
+    private MavenSession validateAndGetSession(final EnforcerRuleHelper helper) throws EnforcerRuleException {
+        try {
+            return (MavenSession) helper.evaluate("${session}");
+        } catch (ExpressionEvaluationException e) {
+            throw new EnforcerRuleException("Failed to evaluate session", e);
+        }
+    }
+
     /**
      * Obtém o caminho do diretório de código fonte.
      */
@@ -114,6 +637,63 @@ public class NoCyclicPackageDependencyRule implements EnforcerRule {
         return Paths.get(baseDir, "src", "main", "java");
     }
 
+    /**
+     * Raízes de código fonte do projeto, sem repetições: todas as compile source
+     * roots, ou {@code src/main/java} se o projeto não declarar nenhuma.
+     */
+    private List<Path> getSourceRoots(final MavenProject project) throws IOException {
+        final List<String> declared = project.getCompileSourceRoots();
+        if (declared == null || declared.isEmpty()) {
+            return distinctRoots(List.of(getSourcePath(project)));
+        }
+        final Path baseDir = Paths.get(getProjectBaseDir(project));
+        return distinctRoots(declared.stream().map(baseDir::resolve).toList());
+    }
+
+    /**
+     * Remove raízes repetidas (inclusive via links simbólicos) e raízes contidas em
+     * outra, cujos arquivos já são encontrados ao percorrer a de fora.
+     */
+    private static List<Path> distinctRoots(final List<Path> candidates) throws IOException {
+        final List<Path> roots = new ArrayList<>(candidates.size());
+        for (final Path candidate : candidates) {
+            final Path root = Files.exists(candidate) ? candidate.toRealPath() : candidate.toAbsolutePath().normalize();
+            if (roots.stream().noneMatch(root::startsWith)) {
+                roots.removeIf(existing -> existing.startsWith(root));
+                roots.add(root);
+            }
+        }
+        return List.copyOf(roots);
+    }
+
+    /**
+     * Raízes da camada de teste (fontes ou classes de teste), sem as que se
+     * sobrepõem às raízes principais.
+     */
+    private List<Path> getTestRoots(final MavenProject project, final List<Path> mainRoots) throws IOException {
+        final Path baseDir = Paths.get(getProjectBaseDir(project));
+        final List<Path> candidates;
+        if (isBytecodeMode()) {
+            final String outputDir = project.getBuild().getTestOutputDirectory();
+            candidates = List.of(outputDir != null ? Paths.get(outputDir) : baseDir.resolve("target/test-classes"));
+        } else {
+            final List<String> declared = project.getTestCompileSourceRoots();
+            candidates = declared == null || declared.isEmpty() ? List.of(baseDir.resolve("src/test/java"))
+                    : declared.stream().map(baseDir::resolve).toList();
+        }
+        return distinctRoots(candidates).stream()
+                .filter(root -> mainRoots.stream().noneMatch(main -> root.startsWith(main) || main.startsWith(root)))
+                .toList();
+    }
+
+    /**
+     * Obtém o diretório das classes compiladas.
+     */
+    private Path getClassesPath(final MavenProject project) {
+        final String outputDir = project.getBuild().getOutputDirectory();
+        return outputDir != null ? Paths.get(outputDir) : Paths.get(getProjectBaseDir(project), "target", "classes");
+    }
+
     /**
      * Obtém o diretório base do projeto.
      */
@@ -121,144 +701,603 @@ public class NoCyclicPackageDependencyRule implements EnforcerRule {
         return project.getBasedir().getAbsolutePath();
     }
 
+    /**
+     * Lista, em ordem, os arquivos Java do diretório que não estão excluídos.
+     */
+    private List<Path> listSourceFiles(final Path srcPath) throws IOException {
+        if (!Files.exists(srcPath)) {
+            return List.of();
+        }
+        try (Stream<Path> paths = Files.walk(srcPath)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> isAnalysedSource(srcPath, path))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Lista os arquivos de várias raízes, percorridas em paralelo; o resultado segue
+     * a ordem das raízes.
+     */
+    private List<Path> listSourceFiles(final List<Path> roots) throws IOException {
+        if (roots.size() == 1) {
+            return listSourceFiles(roots.get(0));
+        }
+        try {
+            return roots.parallelStream()
+                    .map(root -> {
+                        try {
+                            return listSourceFiles(root);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .flatMap(List::stream)
+                    .toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Se o arquivo é um fonte Java (ou uma classe, no modo bytecode) do diretório.
+     * As exclusões não se aplicam aqui: o pacote do caminho pode não ser o declarado,
+     * e só o declarado, lido do arquivo, decide (veja {@link #packageOf(SourceFile)}).
+     */
+    private boolean isAnalysedSource(final Path srcPath, final Path file) {
+        return file.startsWith(srcPath) && file.toString().endsWith(isBytecodeMode() ? ".class" : ".java");
+    }
+
     /**
      * Escaneia arquivos Java e extrai dependências.
+     *
+     * <p>
+     * Os arquivos são lidos em paralelo e cada um produz o seu próprio conjunto de
+     * imports; com o cache incremental ativo, só os arquivos novos ou alterados
+     * desde a última execução são lidos. No modo Git, nem mesmo a árvore é
+     * percorrida: só os arquivos alterados segundo o Git são considerados; esse modo
+     * só se aplica a uma única raiz, já que fontes gerados costumam ser ignorados
+     * pelo Git.
+     * </p>
      */
-    private Map<String, Set<String>> scanJavaFiles(final Path srcPath)
+    private List<SourceFile> scanJavaFiles(final List<Path> roots, final Path cacheFile, final Log log)
             throws IOException {
-        final Map<String, Set<String>> dependencies = new HashMap<>();
-        try (Stream<Path> paths = Files.walk(srcPath)) {
-            paths.filter(Files::isRegularFile)
-                    .filter(path -> path.toString().endsWith(".java"))
-                    .forEach(file -> extractDependencies(file, dependencies));
+        return scanJavaFiles(roots, cacheFile, cacheFile, log);
+    }
+
+    /**
+     * Como {@link #scanJavaFiles(List, Path, Log)}, mas o cache, enquanto
+     * {@code cacheFile} não existir, é lido de {@code seedFile}, que nunca é gravado.
+     */
+    private List<SourceFile> scanJavaFiles(final List<Path> roots, final Path cacheFile, final Path seedFile,
+            final Log log) throws IOException {
+        final NameInterner interner = new NameInterner();
+        if (cacheFile == null) {
+            return new SourceScanner(parallelism, null, modelCache, interner, headerReader())
+                    .scan(listSourceFiles(roots));
         }
-        return dependencies;
+
+        final ImportCache cache = ImportCache.load(Files.exists(cacheFile) ? cacheFile : seedFile, interner);
+        final SourceScanner scanner = new SourceScanner(parallelism, cache, modelCache, interner, headerReader());
+        if (gitIncremental && isSourceMode() && roots.size() == 1 && Files.exists(roots.get(0))) {
+            final Path srcPath = roots.get(0);
+            try (GitChangeDetector git = GitChangeDetector.open(srcPath)) {
+                final GitBaseline current = git != null ? git.snapshot() : null;
+                if (current != null) {
+                    return scanGitChanges(srcPath, cacheFile, cache, scanner, git, current, log);
+                }
+                logInfo(log, "No Git history found for " + srcPath + "; scanning all files");
+            }
+        }
+
+        final List<SourceFile> sources = scanner.scan(listSourceFiles(roots));
+        logInfo(log, "Scanned %d source files (%d parsed, %d from cache)"
+                .formatted(sources.size(), scanner.parsedCount(), sources.size() - scanner.parsedCount()));
+        if (cache.isStale(scanner.parsedCount(), sources.size()) || cache.baseline() != null) {
+            saveCache(cacheFile, sources, null, log);
+        }
+        return sources;
     }
 
     /**
-     * Reporta ciclos encontrados.
+     * Modo agregado: usa o grafo do reactor inteiro, calculado uma única vez por
+     * sessão, e reporta só os emaranhados que envolvem pacotes deste módulo.
      */
-    private void reportCycles(final List<List<String>> cycles, final Log log)
-            throws EnforcerRuleException {
-        final StringBuilder errorMsg = new StringBuilder("❌ Cyclic dependencies found:\n");
+    private void executeAggregate(final MavenSession session, final MavenProject project, final Log log)
+            throws EnforcerRuleException, IOException {
+        if (!isSourceMode() || !archives.isEmpty()) {
+            throw new EnforcerRuleException("aggregate requires analysisMode 'source' and no archives");
+        }
 
-        for (int i = 0; i < cycles.size(); i++) {
-            final DependencyCycle cycle = new DependencyCycle(i + 1, cycles.get(i));
-            errorMsg.append(cycle.format()).append('\n');
+        final String key = "kevlar:" + getClass().getName() + ":aggregate:" + excludePatterns + ":"
+                + incrementalCache + ":" + gitIncremental;
+        final ReactorAnalysis analysis = ReactorAnalysis.shared(session.getRepositorySession().getData(), key,
+                () -> analyseReactor(project, session.getProjects(), log));
+
+        final BitSet own = analysis.packagesOf(moduleKey(project));
+        final List<int[]> tangles = analysis.tangles().stream()
+                .filter(component -> containsAny(component, own))
+                .toList();
+        if (tangles.isEmpty()) {
+            logInfo(log, "✅ No cyclic dependencies involving " + moduleKey(project));
+            return;
         }
+        final StringBuilder report = new StringBuilder();
+        appendCycles(report, "❌ Cyclic dependencies found:", "packages", analysis.graph(), tangles, own, analysis,
+                null, log);
+        fail(report.toString(), log);
+    }
 
-        if (failOnError) {
-            throw new EnforcerRuleException(errorMsg.toString());
-        } else {
-            logWarn(log, errorMsg.toString());
+    /**
+     * Lê os fontes de todos os módulos do reactor e monta um único grafo, guardando
+     * quais pacotes pertencem a cada módulo. Os caches incrementais ficam no módulo
+     * em execução, um por módulo lido: o cache de cada módulo só é lido, nunca
+     * gravado, porque sob {@code -T} o próprio módulo pode estar gravando-o.
+     */
+    private ReactorAnalysis analyseReactor(final MavenProject project, final List<MavenProject> projects,
+            final Log log) throws IOException {
+        final List<SourceFile> sources = new ArrayList<>();
+        final Map<String, List<SourceFile>> sourcesByModule = new LinkedHashMap<>();
+        for (final MavenProject module : projects) {
+            final List<Path> moduleRoots = getSourceRoots(module);
+            final List<SourceFile> moduleSources = moduleRoots.stream().anyMatch(Files::exists)
+                    ? scanJavaFiles(moduleRoots, incrementalCache ? getAggregateCacheFile(project, module) : null,
+                            getCacheFile(module), log)
+                    : List.of();
+            sourcesByModule.computeIfAbsent(moduleKey(module), key -> new ArrayList<>()).addAll(moduleSources);
+            sources.addAll(moduleSources);
         }
+
+        final PackageGraph graph = buildTypeGraph(sources, indexTypes(sources)).project(TypeGraph.Granularity.PACKAGE);
+        final Map<String, BitSet> packagesByModule = new HashMap<>();
+        sourcesByModule.forEach((module, moduleSources) -> {
+            final BitSet packages = new BitSet(graph.size());
+            for (final SourceFile source : moduleSources) {
+                final String packageName = source.header().packageName();
+                final int id = packageName != null ? graph.id(packageName) : -1;
+                if (id >= 0) {
+                    packages.set(id);
+                }
+            }
+            packagesByModule.put(module, packages);
+        });
+        logInfo(log, "Analysed %d source files from %d reactor modules".formatted(sources.size(), projects.size()));
+        logGraph(log, graph, TypeGraph.Granularity.PACKAGE);
+        return new ReactorAnalysis(graph, StronglyConnectedComponents.find(graph), packagesByModule);
     }
 
-    private void extractDependencies(final Path file, final Map<String, Set<String>> dependencies) {
-        try {
-            final String packageName = extractPackageName(file);
-            if (packageName == null || shouldExclude(packageName)) {
-                return;
+    private static String moduleKey(final MavenProject project) {
+        return project.getGroupId() + ":" + project.getArtifactId();
+    }
+
+    private static boolean containsAny(final int[] component, final BitSet packages) {
+        for (final int node : component) {
+            if (packages.get(node)) {
+                return true;
             }
+        }
+        return false;
+    }
 
-            final Set<String> fileDeps = new HashSet<>();
-            final List<String> lines = Files.readAllLines(file);
+    /**
+     * Analisa os arquivos zip/jar configurados diretamente, abrindo cada um como um
+     * {@link FileSystem}: as entradas são lidas em paralelo, sem extração para o
+     * disco. Arquivos {@code -sources.jar} servem ao modo source e jars binários ao
+     * modo bytecode. O cache incremental não se aplica; a impressão digital é a dos
+     * próprios arquivos.
+     */
+    private TypeGraph scanArchives(final MavenProject project, final Log log) throws IOException {
+        final Path baseDir = Paths.get(getProjectBaseDir(project));
+        final List<Path> archiveFiles = archives.stream().map(baseDir::resolve).toList();
+        analysedArchives = archiveFiles;
 
-            for (final String line : lines) {
-                final String trimmedLine = line.trim();
-                if (trimmedLine.startsWith("import ")) {
-                    final String importStmt = trimmedLine.substring(7).replaceAll(";.*", "");
-                    final String depPackage = extractPackageFromImport(importStmt);
-                    if (depPackage != null && !shouldExclude(depPackage)) {
-                        fileDeps.add(depPackage);
-                    }
+        final List<FileSystem> fileSystems = new ArrayList<>();
+        try {
+            final List<Path> roots = new ArrayList<>();
+            final List<Path> files = new ArrayList<>();
+            for (final Path archive : archiveFiles) {
+                final FileSystem fileSystem = openArchive(archive);
+                fileSystems.add(fileSystem);
+                for (final Path root : fileSystem.getRootDirectories()) {
+                    roots.add(root);
+                    files.addAll(listSourceFiles(root));
                 }
             }
 
-            if (!fileDeps.isEmpty()) {
-                dependencies.computeIfAbsent(packageName, k -> new HashSet<>()).addAll(fileDeps);
+            final SourceScanner scanner = new SourceScanner(parallelism, null, new NameInterner(), headerReader());
+            final List<SourceFile> sources = scanner.scan(files);
+            logInfo(log, "Scanned %d entries from %d archives".formatted(sources.size(), archiveFiles.size()));
+
+            final List<SourceFile> archiveEntries = new ArrayList<>(archiveFiles.size());
+            for (final Path archive : archiveFiles) {
+                archiveEntries.add(new SourceFile(archive, Files.size(archive),
+                        Files.getLastModifiedTime(archive).toMillis(), ImportCache.contentHash(archive),
+                        new SourceHeader(null, List.of())));
             }
+            fingerprint = SourceFingerprint.of(archiveEntries);
+            return buildTypeGraph(sources, indexTypes(sources));
+        } finally {
+            for (final FileSystem fileSystem : fileSystems) {
+                fileSystem.close();
+            }
+        }
+    }
 
-        } catch (IOException ignorException) {
-            // Skip file on error - this is intentional for robustness
-            // Logging is intentionally omitted to avoid noise from expected file access
-            // issues
+    /**
+     * Abre um arquivo zip/jar como sistema de arquivos somente leitura.
+     */
+    private FileSystem openArchive(final Path archive) throws IOException {
+        if (!Files.isRegularFile(archive)) {
+            throw new NoSuchFileException(archive.toString(), null, "archive not found");
+        }
+        try {
+            return FileSystems.newFileSystem(archive);
+        } catch (ProviderNotFoundException e) {
+            throw new IOException("Not a zip or jar archive: " + archive, e);
         }
     }
 
-    private String extractPackageName(final Path file) {
-        final String relativePath = file.toString()
-                .replaceAll(".*src/main/java/", "")
-                .replaceAll("\\.java$", "");
+    /**
+     * Leitor de cada arquivo conforme o modo de análise.
+     */
+    private SourceScanner.HeaderReader headerReader() {
+        return isBytecodeMode() ? ClassFileReader::read : ImportLexer::read;
+    }
 
-        final int lastSlash = relativePath.lastIndexOf('/');
-        if (lastSlash == -1) {
-            return null;
+    /**
+     * Modo Git: reaproveita as entradas do cache sem tocar nos arquivos e relê só os
+     * arquivos que mudaram desde o commit analisado por último. Sem esse commit (ou
+     * se ele não existir mais), lê a árvore inteira uma vez.
+     */
+    private List<SourceFile> scanGitChanges(final Path srcPath, final Path cacheFile, final ImportCache cache,
+            final SourceScanner scanner, final GitChangeDetector git, final GitBaseline current, final Log log)
+            throws IOException {
+        final GitBaseline previous = cache.baseline();
+        final Set<String> changed = previous != null ? git.changedSince(previous, current) : null;
+
+        final List<SourceFile> sources;
+        if (changed == null) {
+            sources = scanner.scan(listSourceFiles(srcPath));
+            logInfo(log, "Scanned %d source files (%d parsed, no usable Git baseline)"
+                    .formatted(sources.size(), scanner.parsedCount()));
+        } else {
+            final List<Path> changedFiles = changed.stream()
+                    .map(Paths::get)
+                    .filter(path -> isAnalysedSource(srcPath, path) && Files.isRegularFile(path))
+                    .toList();
+            final List<SourceFile> merged = new ArrayList<>(scanner.scan(changedFiles));
+            for (final SourceFile entry : cache.entries()) {
+                if (!changed.contains(entry.path().toString()) && isAnalysedSource(srcPath, entry.path())) {
+                    merged.add(entry);
+                }
+            }
+            merged.sort(Comparator.comparing(SourceFile::path));
+            sources = merged;
+            logInfo(log, "Scanned %d source files (%d changed since %s, %d parsed)"
+                    .formatted(sources.size(), changed.size(), previous.commit().substring(0, 12),
+                            scanner.parsedCount()));
         }
-        return relativePath.substring(0, lastSlash).replace('/', '.');
+
+        if (cache.isStale(scanner.parsedCount(), sources.size()) || !current.equals(previous)) {
+            saveCache(cacheFile, sources, current, log);
+        }
+        return sources;
     }
 
-    private String extractPackageFromImport(final String importStmt) {
-        if (importStmt.startsWith("static ") || importStmt.endsWith(".*")) {
-            return null;
+    /**
+     * Indexa os tipos declarados, para resolver os imports sob demanda, estáticos e
+     * de tipos aninhados ao pacote do tipo dono, e para separar as dependências
+     * internas das externas, que não podem fechar um ciclo.
+     */
+    private TypeIndex indexTypes(final List<SourceFile> sources) {
+        final TypeIndex.Builder types = TypeIndex.builder();
+        for (final SourceFile source : sources) {
+            final String packageName = packageOf(source);
+            if (packageName != null) {
+                types.addType(packageName, typeNameOf(source.path()));
+            }
         }
-        final int lastDot = importStmt.lastIndexOf('.');
-        if (lastDot == -1) {
-            return null;
+        return types.build();
+    }
+
+    /**
+     * Pacote declarado pelo arquivo (ou pela própria classe, no bytecode), não o do
+     * caminho; {@code null} se não houver um ou se estiver excluído.
+     */
+    private String packageOf(final SourceFile source) {
+        final String packageName = source.header().packageName();
+        return packageName == null || packageName.isEmpty() || shouldExclude(packageName) ? null : packageName;
+    }
+
+    /**
+     * Monta o grafo de tipos numa única thread: cada arquivo é um tipo, e cada
+     * import aponta para o tipo do projeto que ele nomeia (ou para o pseudo-tipo
+     * {@code pacote.*} de um import sob demanda). Só os arquivos dados contribuem
+     * arestas; o índice pode conhecer mais tipos. As projeções do grafo seguem a
+     * ordem dos nomes, para que os ciclos reportados não dependam do escalonamento.
+     */
+    private TypeGraph buildTypeGraph(final List<SourceFile> sources, final TypeIndex index) {
+        final TypeGraph.Builder graph = TypeGraph.builder();
+        for (final SourceFile source : sources) {
+            final String packageName = packageOf(source);
+            if (packageName == null) {
+                continue;
+            }
+            final String type = packageName + "." + typeNameOf(source.path());
+            graph.addType(type, packageName);
+            for (final ImportDeclaration importDecl : source.header().imports()) {
+                // no bytecode as referências já são nomes binários exatos
+                final String depPackage = isBytecodeMode() ? importDecl.qualifier() : index.resolve(importDecl);
+                if (depPackage == null || shouldExclude(depPackage)) {
+                    continue;
+                }
+                if (index.isPackage(depPackage)) {
+                    final String target = index.typeOf(importDecl.name());
+                    graph.addEdge(type, packageName, target != null ? target : depPackage + ".*", depPackage);
+                } else {
+                    graph.addExternalEdge(type, packageName, depPackage);
+                }
+            }
         }
-        return importStmt.substring(0, lastDot);
+        return graph.build();
     }
 
-    private boolean shouldExclude(final String packageName) {
-        return excludePatterns.stream()
-                .anyMatch(pattern -> Pattern.compile(pattern).matcher(packageName).matches());
+    /**
+     * Nome simples do tipo declarado pelo arquivo ({@code Outer$Inner} para classes aninhadas).
+     */
+    private static String typeNameOf(final Path file) {
+        final String fileName = file.getFileName().toString();
+        return fileName.substring(0, fileName.lastIndexOf('.'));
     }
 
-    private List<List<String>> detectCycles(final Map<String, Set<String>> dependencies) {
-        final List<List<String>> cycles = new ArrayList<>();
-        final Set<String> visited = new HashSet<>();
-        final Set<String> recursionStack = new HashSet<>();
-        List<String> currentPath;
+    /**
+     * Chave do grafo no cache em memória: tudo o que muda o grafo montado a partir
+     * dos mesmos arquivos, mais a impressão digital deles.
+     */
+    private String graphKey(final List<Path> roots, final SourceFingerprint sources) {
+        return analysisMode + ":" + excludePatterns + ":" + roots + ":" + sources.size() + ":" + sources;
+    }
 
-        for (final String packageName : dependencies.keySet()) {
-            if (!visited.contains(packageName)) {
-                currentPath = new ArrayList<>();
-                detectCyclesDFS(packageName, dependencies, visited, recursionStack, currentPath, cycles);
-            }
+    /**
+     * Grava o cache incremental; uma falha aqui não deve quebrar o build.
+     */
+    private void saveCache(final Path cacheFile, final List<SourceFile> sources, final GitBaseline baseline,
+            final Log log) {
+        try {
+            ImportCache.save(cacheFile, sources, baseline);
+        } catch (IOException e) {
+            logWarn(log, "Could not write import cache " + cacheFile + ": " + e.getMessage());
         }
+    }
+
+    /**
+     * Arquivo do cache incremental da camada de teste, ao lado do principal.
+     */
+    private Path getTestCacheFile(final MavenProject project) {
+        final Path cacheFile = getCacheFile(project);
+        return cacheFile.resolveSibling("test-" + cacheFile.getFileName());
+    }
 
-        return cycles;
+    /**
+     * Cache incremental do módulo dado no modo agregado, dentro do diretório de build
+     * do módulo em execução.
+     */
+    private Path getAggregateCacheFile(final MavenProject project, final MavenProject module) {
+        final Path cacheFile = getCacheFile(project);
+        return cacheFile.resolveSibling("aggregate")
+                .resolve(moduleKey(module).replace(':', '_') + "-" + cacheFile.getFileName());
     }
 
-    private void detectCyclesDFS(final String currentPackage, final Map<String, Set<String>> dependencies,
-            final Set<String> visited, final Set<String> recursionStack,
-            final List<String> currentPath, final List<List<String>> cycles) {
+    /**
+     * Obtém o arquivo do cache incremental dentro do diretório de build.
+     */
+    private Path getCacheFile(final MavenProject project) {
+        final String buildDir = project.getBuild().getDirectory();
+        final Path target = buildDir != null ? Paths.get(buildDir) : Paths.get(getProjectBaseDir(project), "target");
+        return target.resolve("kevlar").resolve(isBytecodeMode() ? "class-cache.bin" : "import-cache.bin");
+    }
 
-        if (recursionStack.contains(currentPackage)) {
-            final int cycleStart = currentPath.indexOf(currentPackage);
-            final List<String> cycle = new ArrayList<>(currentPath.subList(cycleStart, currentPath.size()));
-            cycle.add(currentPackage);
-            cycles.add(cycle);
+    /**
+     * Escreve no relatório os emaranhados e os ciclos elementares de cada um, sob o
+     * título dado; nada é escrito se não houver emaranhados. Cada ciclo vai para o
+     * log assim que é encontrado, e só os primeiros {@link #MAX_REPORTED_CYCLES} de
+     * cada emaranhado ficam no relatório, seguidos da contagem dos demais; assim a
+     * memória não cresce com o número de ciclos, mesmo sem limite de ciclos ou de
+     * tempo.
+     */
+    private void appendCycles(final StringBuilder errorMsg, final String title, final String unit,
+            final PackageGraph graph, final List<int[]> tangles, final BitSet focus, final ReactorAnalysis analysis,
+            final Function<int[], List<Set<String>>> cutOrigins, final Log log) {
+        if (tangles.isEmpty()) {
             return;
         }
+        errorMsg.append(title).append('\n');
 
-        if (visited.contains(currentPackage) || currentPath.size() >= maxDepth) {
-            return;
+        for (int i = 0; i < tangles.size(); i++) {
+            final int[] component = tangles.get(i);
+            final String tangle = new DependencyTangle(i + 1, graph.names(component), unit).format();
+            errorMsg.append(tangle).append('\n');
+            logInfo(log, tangle);
+            if (analysis != null) {
+                final Set<String> modules = new TreeSet<>();
+                for (final int node : component) {
+                    modules.addAll(analysis.modulesOf(node));
+                }
+                errorMsg.append("  Modules: ").append(String.join(", ", modules)).append('\n');
+            }
+
+            // todos os ciclos enumerados, e os que passam pelos pacotes do módulo (modo agregado)
+            final long[] found = {0};
+            final long[] count = {0};
+            final ElementaryCycles.Outcome outcome = ElementaryCycles.enumerate(graph, component, maxDepth,
+                    maxCyclesPerComponent, cycleSearchTimeout, cycle -> {
+                        found[0]++;
+                        if (focus == null || containsAny(cycle, focus)) {
+                            final String line = "  " + new DependencyCycle(++count[0], graph.names(cycle)).format();
+                            logInfo(log, line);
+                            if (count[0] <= MAX_REPORTED_CYCLES) {
+                                errorMsg.append(line).append('\n');
+                            }
+                        }
+                    });
+
+            if (count[0] == 0) {
+                // nenhum ciclo cabe em maxDepth: mostra o menor ciclo do emaranhado
+                final int start = focus == null ? component[0]
+                        : Arrays.stream(component).filter(focus::get).findFirst().orElse(component[0]);
+                final int[] shortest = StronglyConnectedComponents.shortestCycle(graph, component, start);
+                errorMsg.append("  ").append(new DependencyCycle(1, graph.names(shortest)).format()).append('\n');
+            } else if (count[0] > MAX_REPORTED_CYCLES) {
+                errorMsg.append("  ... and ").append(count[0] - MAX_REPORTED_CYCLES)
+                        .append(" more cycles (see the log)\n");
+            }
+            final String searched = focus == null ? found[0] + " cycles"
+                    : "%d cycles, %d of them through this module".formatted(found[0], count[0]);
+            switch (outcome) {
+                case CYCLE_LIMIT -> errorMsg.append("  ... stopped after ").append(searched)
+                        .append(" (maxCyclesPerComponent)\n");
+                case TIME_BUDGET -> errorMsg.append("  ... stopped after ").append(searched)
+                        .append(" (cycleSearchTimeout)\n");
+                case COMPLETE -> {
+                    // todos os ciclos até maxDepth foram listados
+                }
+            }
+            appendCuts(errorMsg, graph, FeedbackArcSet.find(graph, component), cutOrigins);
+        }
+    }
+
+    /**
+     * Lista as dependências sugeridas para corte de um emaranhado, com o número de
+     * referências que produzem cada uma e, se conhecidos, os arquivos de origem.
+     */
+    private void appendCuts(final StringBuilder errorMsg, final PackageGraph graph, final int[] cuts,
+            final Function<int[], List<Set<String>>> cutOrigins) {
+        final String references = isSourceMode() ? "imports" : "references";
+        long total = 0;
+        for (final int edge : cuts) {
+            total += graph.weight(edge);
+        }
+        errorMsg.append("  Suggested cuts (%d dependencies, %d %s):\n".formatted(cuts.length, total, references));
+        final List<Set<String>> origins = cutOrigins != null ? cutOrigins.apply(cuts) : null;
+        for (int i = 0; i < cuts.length; i++) {
+            final int edge = cuts[i];
+            errorMsg.append("    ").append(graph.name(sourceOf(graph, edge))).append(" → ")
+                    .append(graph.name(graph.target(edge)))
+                    .append(" (%d %s)".formatted(graph.weight(edge), references));
+            if (origins != null && !origins.get(i).isEmpty()) {
+                final List<String> files = List.copyOf(origins.get(i));
+                errorMsg.append(": ")
+                        .append(String.join(", ", files.subList(0, Math.min(files.size(), MAX_CUT_FILES))));
+                if (files.size() > MAX_CUT_FILES) {
+                    errorMsg.append(" and ").append(files.size() - MAX_CUT_FILES).append(" more");
+                }
+            }
+            errorMsg.append('\n');
         }
+    }
 
-        visited.add(currentPackage);
-        recursionStack.add(currentPackage);
-        currentPath.add(currentPackage);
+    /**
+     * Origem da aresta na posição dada (busca binária nos deslocamentos das linhas).
+     */
+    private static int sourceOf(final PackageGraph graph, final int edge) {
+        int low = 0;
+        int high = graph.size() - 1;
+        while (low < high) {
+            final int middle = (low + high + 1) >>> 1;
+            if (graph.edgeStart(middle) <= edge) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
 
-        final Set<String> packageDeps = dependencies.get(currentPackage);
-        if (packageDeps != null) {
-            for (final String dep : packageDeps) {
-                detectCyclesDFS(dep, dependencies, visited, recursionStack, currentPath, cycles);
+    /**
+     * Arquivos que produzem cada dependência sugerida para corte, numa única passada
+     * pelo grafo de tipos. Tipos sem arquivo conhecido aparecem pelo nome.
+     */
+    private static List<Set<String>> cutOrigins(final TypeGraph types, final TypeGraph.Granularity level,
+            final PackageGraph graph, final int[] cuts, final Function<String, String> sourceOf) {
+        final Map<Integer, Integer> indexOf = new HashMap<>(cuts.length * 2);
+        final List<Set<String>> origins = new ArrayList<>(cuts.length);
+        for (int i = 0; i < cuts.length; i++) {
+            indexOf.put(cuts[i], i);
+            origins.add(new TreeSet<>());
+        }
+        final int[] groupOf = new int[types.size()];
+        for (int node = 0; node < types.size(); node++) {
+            groupOf[node] = graph.id(level.groupOf(types.name(node), types.packageName(node)));
+        }
+        for (int node = 0; node < types.size(); node++) {
+            final int from = groupOf[node];
+            if (from < 0) {
+                continue;
             }
+            for (int e = types.edgeStart(node); e < types.edgeEnd(node); e++) {
+                final int to = groupOf[types.target(e)];
+                final int edge = to >= 0 && to != from ? graph.edge(from, to) : -1;
+                final Integer index = edge >= 0 ? indexOf.get(edge) : null;
+                if (index != null) {
+                    final String file = sourceOf.apply(types.name(node));
+                    origins.get(index).add(file != null ? file : types.name(node));
+                }
+            }
+        }
+        return origins;
+    }
+
+    /**
+     * Descrição do arquivo de cada tipo declarado pelos fontes; o mapa só é montado
+     * na primeira consulta.
+     */
+    private Function<String, String> sourceDescriber(final Path baseDir, final List<SourceFile> files) {
+        final Supplier<Map<String, Path>> sources = memoize(() -> sourcesByType(files));
+        return type -> {
+            final Path source = sources.get().get(type);
+            return source != null ? describeSource(baseDir, source) : null;
+        };
+    }
+
+    /**
+     * Falha o build com o relatório, ou só o registra se {@code failOnError} for falso.
+     */
+    private void fail(final String report, final Log log) throws EnforcerRuleException {
+        if (failOnError) {
+            throw new EnforcerRuleException(report);
+        } else {
+            logWarn(log, report);
         }
+    }
+
+    private boolean isTestLayerEnabled() {
+        return !"none".equalsIgnoreCase(testSources);
+    }
 
-        currentPath.remove(currentPath.size() - 1);
-        recursionStack.remove(currentPackage);
+    private boolean isCombinedTests() {
+        return "combined".equalsIgnoreCase(testSources);
+    }
+
+    private boolean isSourceMode() {
+        return "source".equalsIgnoreCase(analysisMode);
+    }
+
+    private boolean isBytecodeMode() {
+        return "bytecode".equalsIgnoreCase(analysisMode);
+    }
+
+    private boolean shouldExclude(final String packageName) {
+        return exclusionMatcher.matches(packageName);
+    }
+
+    /**
+     * Loga o tamanho do grafo; as dependências externas só são contadas.
+     */
+    private void logGraph(final Log log, final PackageGraph graph, final TypeGraph.Granularity level) {
+        logInfo(log, ("Dependency graph (%s level): %d %s, %d internal dependencies, "
+                + "%d external dependencies (not analysed)")
+                .formatted(level, graph.size(), level.unit(), graph.edgeCount(), graph.externalEdgeCount()));
     }
 
     /**
@@ -284,28 +1323,58 @@ public class NoCyclicPackageDependencyRule implements EnforcerRule {
         log.error(message, throwable);
     }
 
+    /**
+     * Identidade da configuração. O módulo e os fontes não entram aqui: quem usa o
+     * cache do Enforcer 3.x é {@link AbstractScanRule#getCacheId()}, que os conhece.
+     */
     @Override
     public String getCacheId() {
         return "NoCyclicPackageDependencyRule:" + projectName + ":" + maxDepth + ":" + excludePatterns + ":"
-                + failOnError;
+                + failOnError + ":" + maxCyclesPerComponent + ":" + cycleSearchTimeout + ":" + analysisMode + ":"
+                + archives + ":" + aggregate + ":" + testSources + ":" + granularities + ":" + metrics + ":"
+                + maxDistance + ":" + maxEfferentCoupling + ":" + accessRules + ":" + accessRuleVariables + ":"
+                + forbiddenDependencies + ":" + allowedDependencies + ":" + checkCycles;
     }
 
+    /**
+     * O Enforcer consulta o seu cache antes de executar a regra, quando ela ainda não
+     * sabe qual módulo vai verificar, e num reactor esse cache é compartilhado por
+     * todos os módulos: com a mesma configuração, o resultado de um módulo seria
+     * reaproveitado para outro. Por isso a regra não usa esse cache; o cache
+     * incremental e o cache em memória já evitam reler os arquivos não alterados.
+     */
     @Override
     public boolean isCacheable() {
-        return true;
+        return false;
     }
 
+    /**
+     * Nunca aceita um resultado em cache (veja {@link #isCacheable()}).
+     */
     @Override
     public boolean isResultValid(final EnforcerRule cachedRule) {
-        if (cachedRule instanceof NoCyclicPackageDependencyRule other) {
-            return Objects.equals(projectName, other.projectName)
-                    && maxDepth == other.maxDepth
-                    && Objects.equals(excludePatterns, other.excludePatterns)
-                    && failOnError == other.failOnError;
-        }
         return false;
     }
 
+    /**
+     * Arquivos dos quais o resultado depende, na ordem em que seriam lidos, ou
+     * {@code null} se ele depende de mais do que eles: dos outros módulos no modo
+     * agregado, do conteúdo dos conjuntos de regras de acesso, ou do arquivo de
+     * métricas que a execução grava.
+     */
+    List<Path> inputFiles(final MavenProject project) throws IOException {
+        if (aggregate || metrics || !accessRules.isEmpty()) {
+            return null;
+        }
+        if (!archives.isEmpty()) {
+            final Path baseDir = Paths.get(getProjectBaseDir(project));
+            return archives.stream().map(baseDir::resolve).toList();
+        }
+        final List<Path> roots = isBytecodeMode() ? List.of(getClassesPath(project)) : getSourceRoots(project);
+        final List<Path> testRoots = isTestLayerEnabled() ? getTestRoots(project, roots) : List.of();
+        return listSourceFiles(concat(roots, testRoots));
+    }
+
     // Configuration setters
     public void setProjectName(final String projectName) {
         this.projectName = projectName;
@@ -317,9 +1386,86 @@ public class NoCyclicPackageDependencyRule implements EnforcerRule {
 
     public void setExcludePatterns(final List<String> excludePatterns) {
         this.excludePatterns = new ArrayList<>(excludePatterns);
+        this.exclusionMatcher = ExclusionMatcher.compile(this.excludePatterns);
     }
 
     public void setFailOnError(final boolean failOnError) {
         this.failOnError = failOnError;
     }
+
+    public void setParallelism(final int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public void setIncrementalCache(final boolean incrementalCache) {
+        this.incrementalCache = incrementalCache;
+    }
+
+    public void setAnalysisMode(final String analysisMode) {
+        this.analysisMode = analysisMode;
+    }
+
+    public void setAggregate(final boolean aggregate) {
+        this.aggregate = aggregate;
+    }
+
+    public void setTestSources(final String testSources) {
+        this.testSources = testSources;
+    }
+
+    public void setGranularities(final List<String> granularities) {
+        this.granularities = new ArrayList<>(granularities);
+    }
+
+    public void setMetrics(final boolean metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setMaxDistance(final double maxDistance) {
+        this.maxDistance = maxDistance;
+    }
+
+    public void setMaxEfferentCoupling(final int maxEfferentCoupling) {
+        this.maxEfferentCoupling = maxEfferentCoupling;
+    }
+
+    public void setAccessRules(final List<String> accessRules) {
+        this.accessRules = new ArrayList<>(accessRules);
+    }
+
+    public void setAccessRuleVariables(final Map<String, String> accessRuleVariables) {
+        this.accessRuleVariables = new HashMap<>(accessRuleVariables);
+    }
+
+    public void setForbiddenDependencies(final List<String> forbiddenDependencies) {
+        this.forbiddenDependencies = new ArrayList<>(forbiddenDependencies);
+    }
+
+    public void setAllowedDependencies(final List<String> allowedDependencies) {
+        this.allowedDependencies = new ArrayList<>(allowedDependencies);
+    }
+
+    void setCheckCycles(final boolean checkCycles) {
+        this.checkCycles = checkCycles;
+    }
+
+    public void setArchives(final List<String> archives) {
+        this.archives = new ArrayList<>(archives);
+    }
+
+    public void setGitIncremental(final boolean gitIncremental) {
+        this.gitIncremental = gitIncremental;
+    }
+
+    public void setMaxCyclesPerComponent(final int maxCyclesPerComponent) {
+        this.maxCyclesPerComponent = maxCyclesPerComponent;
+    }
+
+    public void setCycleSearchTimeout(final long cycleSearchTimeout) {
+        this.cycleSearchTimeout = cycleSearchTimeout;
+    }
+
+    void setModelCache(final SourceModelCache modelCache) {
+        this.modelCache = modelCache;
+    }
 }
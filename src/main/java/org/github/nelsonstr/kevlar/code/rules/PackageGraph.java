@@ -0,0 +1,267 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable package dependency graph in compressed sparse row (CSR) form.
+ *
+ * <p>
+ * Every package is given an {@code int} id; ids follow the natural order of the
+ * package names, so iterating by id is deterministic. The outgoing edges of node
+ * {@code n} are {@code targets[offsets[n] .. offsets[n + 1])}, sorted and without
+ * duplicates. Self-edges (a package importing one of its own types) are dropped,
+ * since they cannot form a cycle between packages. Each edge also has a weight,
+ * {@code weights[e]}: the number of references (import statements, or types
+ * referenced from the bytecode) that produce it, which is what breaking the
+ * dependency costs.
+ * </p>
+ *
+ * <p>
+ * Dependencies on external packages (the JDK and libraries) cannot close a cycle
+ * either, so they are not nodes: each package only keeps the number of distinct
+ * external packages it depends on, for metrics.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class PackageGraph {
+
+    private final String[] names;
+    private final Map<String, Integer> ids;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int[] externalFanOut;
+
+    private PackageGraph(final String[] names, final int[] offsets, final int[] targets, final int[] weights,
+            final int[] externalFanOut) {
+        this.names = names;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.externalFanOut = externalFanOut;
+        this.ids = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            ids.put(names[i], i);
+        }
+    }
+
+    /**
+     * Número de pacotes (nós).
+     */
+    int size() {
+        return names.length;
+    }
+
+    /**
+     * Número de dependências distintas entre pacotes (arestas).
+     */
+    int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Número de pacotes externos distintos de que o pacote depende.
+     */
+    int externalFanOut(final int node) {
+        return externalFanOut[node];
+    }
+
+    /**
+     * Soma das dependências externas de todos os pacotes.
+     */
+    int externalEdgeCount() {
+        int total = 0;
+        for (final int count : externalFanOut) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Nome do pacote com o id dado.
+     */
+    String name(final int id) {
+        return names[id];
+    }
+
+    /**
+     * Id do pacote, ou {@code -1} se não fizer parte do grafo.
+     */
+    int id(final String name) {
+        final Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Posição da primeira aresta de saída do nó em {@link #target(int)}.
+     */
+    int edgeStart(final int node) {
+        return offsets[node];
+    }
+
+    /**
+     * Posição seguinte à última aresta de saída do nó.
+     */
+    int edgeEnd(final int node) {
+        return offsets[node + 1];
+    }
+
+    /**
+     * Destino da aresta na posição dada.
+     */
+    int target(final int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * Número de referências que produzem a aresta na posição dada.
+     */
+    int weight(final int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * Posição da aresta {@code from → to}, ou {@code -1} se não existir.
+     */
+    int edge(final int from, final int to) {
+        final int position = Arrays.binarySearch(targets, offsets[from], offsets[from + 1], to);
+        return position >= 0 ? position : -1;
+    }
+
+    /**
+     * Converte uma sequência de ids em nomes de pacotes.
+     */
+    List<String> names(final int[] path) {
+        final List<String> result = new ArrayList<>(path.length);
+        for (final int id : path) {
+            result.add(names[id]);
+        }
+        return result;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Grafo já em CSR: nomes em ordem natural e linhas ordenadas e sem repetições
+     * nem laços, como as produzidas por {@link TypeGraph#project}, com o peso de
+     * cada aresta.
+     */
+    static PackageGraph of(final String[] names, final int[] offsets, final int[] targets, final int[] weights,
+            final int[] externalFanOut) {
+        return new PackageGraph(names, offsets, targets, weights, externalFanOut);
+    }
+
+    /**
+     * Acumula pacotes e dependências e produz o {@link PackageGraph}.
+     *
+     * <p>
+     * Não é thread-safe: os resultados por arquivo devem ser adicionados a partir de
+     * uma única thread.
+     * </p>
+     */
+    static final class Builder {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private long[] edges = new long[256];
+        private int edgeCount;
+        private final Set<String> externalEdges = new HashSet<>();
+        private int[] externalCounts = new int[64];
+
+        private Builder() {
+        }
+
+        /**
+         * Registra o pacote e retorna o seu id provisório.
+         */
+        int addNode(final String name) {
+            final Integer existing = ids.get(name);
+            if (existing != null) {
+                return existing;
+            }
+            final int id = names.size();
+            ids.put(name, id);
+            names.add(name);
+            return id;
+        }
+
+        /**
+         * Registra a dependência {@code from → to}; cada repetição soma 1 ao seu peso.
+         */
+        void addEdge(final String from, final String to) {
+            final int source = addNode(from);
+            final int target = addNode(to);
+            if (source == target) {
+                return;
+            }
+            if (edgeCount == edges.length) {
+                edges = Arrays.copyOf(edges, edgeCount * 2);
+            }
+            edges[edgeCount++] = ((long) source << 32) | target;
+        }
+
+        /**
+         * Registra a dependência de {@code from} num pacote externo, que só é contada.
+         */
+        void addExternalEdge(final String from, final String to) {
+            final int source = addNode(from);
+            if (externalEdges.add(from + ' ' + to)) {
+                if (source >= externalCounts.length) {
+                    externalCounts = Arrays.copyOf(externalCounts, Math.max(source + 1, externalCounts.length * 2));
+                }
+                externalCounts[source]++;
+            }
+        }
+
+        PackageGraph build() {
+            final int n = names.size();
+            final String[] sorted = names.toArray(new String[0]);
+            Arrays.sort(sorted);
+            final int[] remap = new int[n];
+            final int[] externalFanOut = new int[n];
+            for (int newId = 0; newId < n; newId++) {
+                final int oldId = ids.get(sorted[newId]);
+                remap[oldId] = newId;
+                externalFanOut[newId] = oldId < externalCounts.length ? externalCounts[oldId] : 0;
+            }
+
+            final long[] remapped = new long[edgeCount];
+            for (int i = 0; i < edgeCount; i++) {
+                final int source = remap[(int) (edges[i] >>> 32)];
+                final int target = remap[(int) edges[i]];
+                remapped[i] = ((long) source << 32) | target;
+            }
+            Arrays.sort(remapped);
+
+            final int[] offsets = new int[n + 1];
+            final int[] targets = new int[edgeCount];
+            final int[] weights = new int[edgeCount];
+            int count = 0;
+            long previous = -1;
+            for (final long edge : remapped) {
+                if (edge == previous) {
+                    weights[count - 1]++;
+                    continue;
+                }
+                previous = edge;
+                offsets[(int) (edge >>> 32) + 1]++;
+                weights[count] = 1;
+                targets[count++] = (int) edge;
+            }
+            for (int i = 0; i < n; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            return new PackageGraph(sorted, offsets, Arrays.copyOf(targets, count), Arrays.copyOf(weights, count),
+                    externalFanOut);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * JDepend-style design metrics of every package, computed from the package graph
+ * of the scan that looks for cycles.
+ *
+ * <p>
+ * Afferent coupling (Ca) is the number of project packages that depend on a
+ * package; efferent coupling (Ce) is the number of packages it depends on, external
+ * ones included. From these and the count of abstract and concrete types follow
+ * instability {@code I = Ce / (Ca + Ce)}, abstractness {@code A = abstract / total}
+ * and the distance from the main sequence {@code D = |A + I - 1|}. Everything is
+ * one pass over the CSR rows, so the metrics cost nothing next to the scan.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class PackageMetrics {
+
+    /**
+     * Métricas de um pacote.
+     *
+     * @param packageName   nome do pacote
+     * @param concreteTypes número de tipos concretos
+     * @param abstractTypes número de interfaces, anotações e classes abstratas
+     * @param afferent      acoplamento aferente (Ca)
+     * @param efferent      acoplamento eferente (Ce)
+     */
+    record Entry(String packageName, int concreteTypes, int abstractTypes, int afferent, int efferent) {
+
+        int totalTypes() {
+            return concreteTypes + abstractTypes;
+        }
+
+        /**
+         * Abstração (A), ou {@code 0} para um pacote sem tipos.
+         */
+        double abstractness() {
+            return totalTypes() == 0 ? 0 : (double) abstractTypes / totalTypes();
+        }
+
+        /**
+         * Instabilidade (I), ou {@code 0} para um pacote sem acoplamentos.
+         */
+        double instability() {
+            return afferent + efferent == 0 ? 0 : (double) efferent / (afferent + efferent);
+        }
+
+        /**
+         * Distância da sequência principal (D).
+         */
+        double distance() {
+            return Math.abs(abstractness() + instability() - 1);
+        }
+    }
+
+    private PackageMetrics() {
+    }
+
+    /**
+     * Calcula as métricas de cada nó do grafo, na ordem dos ids; as contagens de
+     * tipos são indexadas pelo id do pacote.
+     */
+    static List<Entry> compute(final PackageGraph graph, final int[] concreteTypes, final int[] abstractTypes) {
+        final int n = graph.size();
+        final int[] afferent = new int[n];
+        for (int node = 0; node < n; node++) {
+            for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                afferent[graph.target(edge)]++;
+            }
+        }
+        final List<Entry> entries = new ArrayList<>(n);
+        for (int node = 0; node < n; node++) {
+            final int efferent = graph.edgeEnd(node) - graph.edgeStart(node) + graph.externalFanOut(node);
+            entries.add(new Entry(graph.name(node), concreteTypes[node], abstractTypes[node], afferent[node],
+                    efferent));
+        }
+        return entries;
+    }
+
+    /**
+     * Grava as métricas em CSV, uma linha por pacote, substituindo o arquivo anterior.
+     */
+    static void write(final Path file, final List<Entry> entries) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("package,types,abstract,concrete,ca,ce,a,i,d\n");
+            for (final Entry entry : entries) {
+                out.write(String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%.3f,%.3f,%.3f\n", entry.packageName(),
+                        entry.totalTypes(), entry.abstractTypes(), entry.concreteTypes(), entry.afferent(),
+                        entry.efferent(), entry.abstractness(), entry.instability(), entry.distance()));
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matcher for a set of package patterns, compiled into one automaton over the
+ * segments of package names.
+ *
+ * <p>
+ * A pattern is a dotted package name in which {@code ..} stands for any number of
+ * segments, including none, and {@code *} stands for any characters within a
+ * segment: {@code ..domain..} is every package with a {@code domain} segment,
+ * {@code com.acme..impl} is every {@code impl} package under {@code com.acme}.
+ * Patterns match a package and all of its subpackages, as Checkstyle's
+ * {@code IllegalImport} does, so {@code java.sql} also covers
+ * {@code java.sql.rowset}.
+ * </p>
+ *
+ * <p>
+ * Patterns share the states of their common prefix. A name is matched by moving the
+ * whole set of active states forward one segment at a time, so the cost is bounded
+ * by the number of segments times the number of states, without the backtracking of
+ * regular expressions.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class PackagePatternAutomaton {
+
+    private static final String ANY_SEGMENTS = "..";
+
+    private static final class State {
+        private final int id;
+        private final Map<String, State> literals = new HashMap<>();
+        private final List<String> globs = new ArrayList<>();
+        private final List<State> globStates = new ArrayList<>();
+        /** Estado alcançado sem consumir segmentos, que consome qualquer número deles */
+        private State anySegments;
+        /** Se o estado consome qualquer segmento e continua nele */
+        private boolean loop;
+        private final BitSet accepts = new BitSet();
+
+        private State(final int id) {
+            this.id = id;
+        }
+    }
+
+    private final List<State> states = new ArrayList<>();
+    private int size;
+
+    PackagePatternAutomaton() {
+        newState();
+    }
+
+    /**
+     * Acrescenta um padrão e retorna o seu id.
+     *
+     * @throws IllegalArgumentException se o padrão for vazio ou tiver segmentos vazios
+     */
+    int add(final String pattern) {
+        State state = states.get(0);
+        for (final String token : tokenize(pattern)) {
+            if (token.equals(ANY_SEGMENTS)) {
+                if (state.anySegments == null) {
+                    state.anySegments = newState();
+                    state.anySegments.loop = true;
+                }
+                state = state.anySegments;
+            } else if (token.indexOf('*') >= 0) {
+                final int existing = state.globs.indexOf(token);
+                if (existing >= 0) {
+                    state = state.globStates.get(existing);
+                } else {
+                    final State next = newState();
+                    state.globs.add(token);
+                    state.globStates.add(next);
+                    state = next;
+                }
+            } else {
+                state = state.literals.computeIfAbsent(token, key -> newState());
+            }
+        }
+        state.accepts.set(size);
+        return size++;
+    }
+
+    /**
+     * Número de padrões.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Ids dos padrões que casam com o pacote ou com algum dos pacotes que o contêm.
+     */
+    BitSet match(final String packageName) {
+        final BitSet result = new BitSet(size);
+        BitSet active = new BitSet(states.size());
+        enter(states.get(0), active);
+        accept(active, result);
+        int start = 0;
+        while (start <= packageName.length() && !active.isEmpty()) {
+            int end = packageName.indexOf('.', start);
+            if (end < 0) {
+                end = packageName.length();
+            }
+            final String segment = packageName.substring(start, end);
+            final BitSet next = new BitSet(states.size());
+            for (int id = active.nextSetBit(0); id >= 0; id = active.nextSetBit(id + 1)) {
+                final State state = states.get(id);
+                if (state.loop) {
+                    enter(state, next);
+                }
+                final State literal = state.literals.get(segment);
+                if (literal != null) {
+                    enter(literal, next);
+                }
+                for (int i = 0; i < state.globs.size(); i++) {
+                    if (ClassPatternTrie.globMatches(state.globs.get(i), segment)) {
+                        enter(state.globStates.get(i), next);
+                    }
+                }
+            }
+            active = next;
+            accept(active, result);
+            start = end + 1;
+        }
+        return result;
+    }
+
+    /**
+     * Ativa o estado e, sem consumir segmentos, o seu estado {@code ..}.
+     */
+    private static void enter(final State state, final BitSet active) {
+        active.set(state.id);
+        if (state.anySegments != null) {
+            active.set(state.anySegments.id);
+        }
+    }
+
+    private void accept(final BitSet active, final BitSet result) {
+        for (int id = active.nextSetBit(0); id >= 0; id = active.nextSetBit(id + 1)) {
+            result.or(states.get(id).accepts);
+        }
+    }
+
+    private State newState() {
+        final State state = new State(states.size());
+        states.add(state);
+        return state;
+    }
+
+    /**
+     * Separa o padrão em segmentos e marcadores {@code ..}; marcadores seguidos são
+     * reduzidos a um só.
+     */
+    private static List<String> tokenize(final String pattern) {
+        final List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < pattern.length()) {
+            if (pattern.startsWith(ANY_SEGMENTS, i)) {
+                if (tokens.isEmpty() || !tokens.get(tokens.size() - 1).equals(ANY_SEGMENTS)) {
+                    tokens.add(ANY_SEGMENTS);
+                }
+                i += ANY_SEGMENTS.length();
+                continue;
+            }
+            int end = pattern.indexOf('.', i);
+            if (end < 0) {
+                end = pattern.length();
+            }
+            final String segment = pattern.substring(i, end);
+            if (segment.isEmpty() || end == pattern.length() - 1) {
+                throw new IllegalArgumentException("Invalid package pattern '" + pattern + "'");
+            }
+            tokens.add(segment);
+            // o ponto que separa dois segmentos; ".." fica para a próxima volta
+            i = end < pattern.length() && !pattern.startsWith(ANY_SEGMENTS, end) ? end + 1 : end;
+        }
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Empty package pattern");
+        }
+        return tokens;
+    }
+}
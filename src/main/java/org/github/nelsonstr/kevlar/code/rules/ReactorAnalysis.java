@@ -0,0 +1,105 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.eclipse.aether.SessionData;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Package graph of a whole reactor, shared by the executions of one Maven session.
+ *
+ * <p>
+ * The analysis is stored in the session data of the repository session. The first
+ * execution that asks for it computes it; every other execution, including the ones
+ * running concurrently under {@code mvn -T}, waits for that result and reuses it. A
+ * failure is shared the same way, so a broken analysis is not retried by every
+ * module.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class ReactorAnalysis {
+
+    /** Cálculo da análise, executado no máximo uma vez por chave */
+    @FunctionalInterface
+    interface Computation {
+        ReactorAnalysis compute() throws IOException;
+    }
+
+    private final PackageGraph graph;
+    private final List<int[]> tangles;
+    private final Map<String, BitSet> packagesByModule;
+
+    /**
+     * @param graph            grafo com os pacotes de todos os módulos
+     * @param tangles          componentes fortemente conexos do grafo
+     * @param packagesByModule ids dos pacotes declarados por cada módulo
+     */
+    ReactorAnalysis(final PackageGraph graph, final List<int[]> tangles, final Map<String, BitSet> packagesByModule) {
+        this.graph = graph;
+        this.tangles = List.copyOf(tangles);
+        this.packagesByModule = Map.copyOf(packagesByModule);
+    }
+
+    /**
+     * Retorna a análise guardada na sessão sob a chave dada, calculando-a se esta
+     * for a primeira execução a pedi-la.
+     */
+    static ReactorAnalysis shared(final SessionData data, final String key, final Computation computation)
+            throws IOException {
+        final CompletableFuture<ReactorAnalysis> created = new CompletableFuture<>();
+        @SuppressWarnings("unchecked")
+        final CompletableFuture<ReactorAnalysis> shared =
+                (CompletableFuture<ReactorAnalysis>) data.computeIfAbsent(key, () -> created);
+        if (shared == created) {
+            try {
+                created.complete(computation.compute());
+            } catch (IOException | RuntimeException e) {
+                created.completeExceptionally(e);
+            }
+        }
+        try {
+            return shared.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw new IOException("Reactor analysis failed: " + io.getMessage(), io);
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    PackageGraph graph() {
+        return graph;
+    }
+
+    List<int[]> tangles() {
+        return tangles;
+    }
+
+    /**
+     * Pacotes do módulo, ou um conjunto vazio se o módulo não tiver fontes.
+     */
+    BitSet packagesOf(final String module) {
+        final BitSet packages = packagesByModule.get(module);
+        return packages != null ? (BitSet) packages.clone() : new BitSet();
+    }
+
+    /**
+     * Módulos que declaram o pacote, em ordem alfabética.
+     */
+    List<String> modulesOf(final int packageId) {
+        return packagesByModule.entrySet().stream()
+                .filter(entry -> entry.getValue().get(packageId))
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,36 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import java.nio.file.Path;
+
+/**
+ * A scanned Java source file: its header together with the file attributes used to
+ * tell whether it changed since it was scanned.
+ *
+ * @param path         the file
+ * @param size         size in bytes
+ * @param lastModified modification time in milliseconds
+ * @param contentHash  CRC32C of the whole file content, or {@link #UNHASHED} when
+ *                     the reader did not go through all of it
+ * @param header       package and imports
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+record SourceFile(Path path, long size, long lastModified, long contentHash, SourceHeader header) {
+
+    /** Hash de um arquivo cujo conteúdo não foi lido inteiro (nenhum CRC32C é negativo) */
+    static final long UNHASHED = -1L;
+
+    /**
+     * Se o hash do conteúdo é conhecido.
+     */
+    boolean isHashed() {
+        return contentHash != UNHASHED;
+    }
+
+    /**
+     * Cópia com outra data de modificação (conteúdo inalterado).
+     */
+    SourceFile withLastModified(final long newLastModified) {
+        return new SourceFile(path, size, newLastModified, contentHash, header);
+    }
+}
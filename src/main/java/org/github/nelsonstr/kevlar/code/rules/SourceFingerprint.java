@@ -0,0 +1,201 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+/**
+ * Merkle-style fingerprint of the source files analysed by one rule execution.
+ *
+ * <p>
+ * Every file is a leaf hashed from its path and content hash; the leaves of one
+ * directory are folded into a directory node, and the directory nodes into the
+ * root {@link #digest()}. A file scanned without a content hash (see
+ * {@link SourceFile#UNHASHED}) stands in with its size and modification time. The
+ * fingerprint also keeps the size and modification time of every leaf, so checking
+ * whether it still holds is cheap: a file whose size and modification time are
+ * unchanged is trusted without being opened, and only a file whose modification
+ * time alone changed has its content hashed again, or counts as changed if it had
+ * no hash. Adding, removing, renaming or editing any file invalidates the
+ * fingerprint.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class SourceFingerprint {
+
+    private static final long SEED = 0x4B564C4152L; // "KVLAR"
+
+    /**
+     * Janela, em milissegundos, em que a data de modificação ainda não prova que o
+     * arquivo não mudou: a resolução do sistema de arquivos pode esconder uma segunda
+     * gravação no mesmo intervalo.
+     */
+    private static final long RACY_WINDOW = 2000;
+
+    private final String[] paths;
+    private final long[] sizes;
+    private final long[] lastModified;
+    private final long[] contentHashes;
+    private final long digest;
+
+    private SourceFingerprint(final String[] paths, final long[] sizes, final long[] lastModified,
+            final long[] contentHashes) {
+        this.paths = paths;
+        this.sizes = sizes;
+        this.lastModified = lastModified;
+        this.contentHashes = contentHashes;
+        this.digest = merkleRoot(paths, leafHashes(sizes, lastModified, contentHashes));
+    }
+
+    /**
+     * Fingerprint dos arquivos lidos, na ordem em que foram listados.
+     */
+    static SourceFingerprint of(final List<SourceFile> files) {
+        final int count = files.size();
+        final String[] paths = new String[count];
+        final long[] sizes = new long[count];
+        final long[] lastModified = new long[count];
+        final long[] contentHashes = new long[count];
+        for (int i = 0; i < count; i++) {
+            final SourceFile file = files.get(i);
+            paths[i] = file.path().toString();
+            sizes[i] = file.size();
+            lastModified[i] = file.lastModified();
+            contentHashes[i] = file.contentHash();
+        }
+        return new SourceFingerprint(paths, sizes, lastModified, contentHashes);
+    }
+
+    /**
+     * Fingerprint dos arquivos só pelo tamanho e data de modificação, sem abri-los.
+     * O conteúdo só é lido quando a data não é confiável: ausente, no futuro ou
+     * recente demais (veja {@link #RACY_WINDOW}).
+     */
+    static SourceFingerprint ofFiles(final List<Path> files) throws IOException {
+        final long now = System.currentTimeMillis();
+        final int count = files.size();
+        final String[] paths = new String[count];
+        final long[] sizes = new long[count];
+        final long[] lastModified = new long[count];
+        final long[] contentHashes = new long[count];
+        for (int i = 0; i < count; i++) {
+            final Path file = files.get(i);
+            final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            paths[i] = file.toString();
+            sizes[i] = attributes.size();
+            lastModified[i] = attributes.lastModifiedTime().toMillis();
+            final boolean racy = lastModified[i] <= 0 || now - lastModified[i] < RACY_WINDOW;
+            contentHashes[i] = racy ? ImportCache.contentHash(file) : SourceFile.UNHASHED;
+        }
+        return new SourceFingerprint(paths, sizes, lastModified, contentHashes);
+    }
+
+    /**
+     * Hash raiz da árvore.
+     */
+    long digest() {
+        return digest;
+    }
+
+    /**
+     * Número de arquivos cobertos.
+     */
+    int size() {
+        return paths.length;
+    }
+
+    /**
+     * Se a lista atual de arquivos (na mesma ordem de {@link #of}) ainda tem o mesmo
+     * conteúdo. Só relê os arquivos cuja data de modificação mudou.
+     */
+    boolean isCurrent(final List<Path> files) {
+        if (files.size() != paths.length) {
+            return false;
+        }
+        try {
+            for (int i = 0; i < paths.length; i++) {
+                final Path file = files.get(i);
+                if (!paths[i].equals(file.toString())) {
+                    return false;
+                }
+                final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (attributes.size() != sizes[i]) {
+                    return false;
+                }
+                if (attributes.lastModifiedTime().toMillis() != lastModified[i]
+                        && (contentHashes[i] == SourceFile.UNHASHED
+                                || ImportCache.contentHash(file) != contentHashes[i])) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Hash de cada folha: o do conteúdo ou, sem ele, o tamanho e a data de modificação.
+     */
+    private static long[] leafHashes(final long[] sizes, final long[] lastModified, final long[] contentHashes) {
+        final long[] leaves = new long[contentHashes.length];
+        for (int i = 0; i < leaves.length; i++) {
+            leaves[i] = contentHashes[i] != SourceFile.UNHASHED ? contentHashes[i] : mix(sizes[i], lastModified[i]);
+        }
+        return leaves;
+    }
+
+    /**
+     * Combina folhas (caminho + conteúdo) em nós por diretório e os nós na raiz.
+     */
+    private static long merkleRoot(final String[] paths, final long[] contentHashes) {
+        long root = mix(SEED, paths.length);
+        int i = 0;
+        while (i < paths.length) {
+            final String directory = parentOf(paths[i]);
+            long node = mix(SEED, hash(directory));
+            while (i < paths.length && parentOf(paths[i]).equals(directory)) {
+                node = mix(node, mix(hash(paths[i]), contentHashes[i]));
+                i++;
+            }
+            root = mix(root, node);
+        }
+        return root;
+    }
+
+    private static String parentOf(final String path) {
+        final int separator = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\'));
+        return separator < 0 ? "" : path.substring(0, separator);
+    }
+
+    private static long hash(final String value) {
+        long h = SEED;
+        for (final byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h = (h ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        return h;
+    }
+
+    /**
+     * Mistura de 64 bits (finalizador do MurmurHash3) aplicada à combinação.
+     */
+    private static long mix(final long left, final long right) {
+        long h = left * 0x9E3779B97F4A7C15L + right;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85AC3L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "%016x".formatted(digest);
+    }
+}
@@ -0,0 +1,28 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import java.util.List;
+
+/**
+ * The header of a Java compilation unit: its package, its imports and whether the
+ * type it declares is abstract.
+ *
+ * @param packageName  declared package, or {@code null} for the default package
+ * @param imports      import declarations in source order
+ * @param abstractType whether the declared type is an interface, an annotation or
+ *                     an {@code abstract} class
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+record SourceHeader(String packageName, List<ImportDeclaration> imports, boolean abstractType) {
+
+    SourceHeader {
+        imports = List.copyOf(imports);
+    }
+
+    /**
+     * Cabeçalho de um tipo concreto.
+     */
+    SourceHeader(final String packageName, final List<ImportDeclaration> imports) {
+        this(packageName, imports, false);
+    }
+}
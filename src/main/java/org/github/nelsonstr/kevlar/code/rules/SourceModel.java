@@ -0,0 +1,113 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.apache.maven.project.MavenProject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Scanned sources of one module, shared by every kevlar rule that analyses it in
+ * the same build.
+ *
+ * <p>
+ * The model holds the files of the main and test layers, each with its declared
+ * package, imports and kind of type, and their fingerprint. The type indexes and
+ * type graphs derived from them are built on first use and kept in the model, so
+ * the cycle check, the access rules and the forbidden dependencies configured in
+ * separate rules read the tree once and build each graph once.
+ * </p>
+ *
+ * <p>
+ * The model is stored in the context values of the {@link MavenProject}, which live
+ * as long as the build, under a key naming everything that changes what is scanned.
+ * Before reusing it, a rule checks that the model still matches the files on disk
+ * (see {@link SourceFingerprint#isCurrent}), since enforcer executions bound to
+ * different phases may see different files.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class SourceModel {
+
+    /** Leitura dos fontes, executada quando não há um modelo válido */
+    @FunctionalInterface
+    interface Computation {
+        SourceModel compute() throws IOException;
+    }
+
+    private final List<SourceFile> sources;
+    private final List<SourceFile> testFiles;
+    private final List<SourceFile> all;
+    private final SourceFingerprint fingerprint;
+    private final Map<String, TypeIndex> indexes = new HashMap<>();
+    private final Map<String, TypeGraph> graphs = new HashMap<>();
+
+    /**
+     * @param sources   arquivos principais, na ordem em que foram listados
+     * @param testFiles arquivos de teste, na ordem em que foram listados
+     */
+    SourceModel(final List<SourceFile> sources, final List<SourceFile> testFiles) {
+        this.sources = List.copyOf(sources);
+        this.testFiles = List.copyOf(testFiles);
+        final List<SourceFile> combined = new ArrayList<>(sources.size() + testFiles.size());
+        combined.addAll(sources);
+        combined.addAll(testFiles);
+        this.all = List.copyOf(combined);
+        this.fingerprint = SourceFingerprint.of(all);
+    }
+
+    /**
+     * Retorna o modelo guardado no projeto sob a chave, se ainda for válido, ou lê os
+     * fontes e guarda o novo modelo no lugar dele.
+     */
+    static SourceModel shared(final MavenProject project, final String key, final Predicate<SourceModel> current,
+            final Computation computation) throws IOException {
+        synchronized (project) {
+            if (project.getContextValue(key) instanceof SourceModel model && current.test(model)) {
+                return model;
+            }
+            final SourceModel model = computation.compute();
+            project.setContextValue(key, model);
+            return model;
+        }
+    }
+
+    List<SourceFile> sources() {
+        return sources;
+    }
+
+    List<SourceFile> testFiles() {
+        return testFiles;
+    }
+
+    /**
+     * Arquivos principais seguidos dos de teste.
+     */
+    List<SourceFile> all() {
+        return all;
+    }
+
+    SourceFingerprint fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Índice de tipos guardado sob a chave, montado na primeira chamada.
+     */
+    synchronized TypeIndex index(final String key, final Supplier<TypeIndex> builder) {
+        return indexes.computeIfAbsent(key, ignored -> builder.get());
+    }
+
+    /**
+     * Grafo de tipos guardado sob a chave, montado na primeira chamada.
+     */
+    synchronized TypeGraph graph(final String key, final Supplier<TypeGraph> builder) {
+        return graphs.computeIfAbsent(key, ignored -> builder.get());
+    }
+}
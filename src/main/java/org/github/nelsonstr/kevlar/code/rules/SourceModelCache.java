@@ -0,0 +1,115 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache of scanned files and package graphs, shared by every rule
+ * execution in the same JVM.
+ *
+ * <p>
+ * The component is a singleton, so it outlives the rule instances that Enforcer
+ * creates for each module and, in a Maven daemon, for each build. File entries are
+ * keyed by absolute path and only returned while the file keeps the size and
+ * modification time it had when it was scanned. Graphs are keyed by the caller,
+ * which includes the fingerprint of the analysed files in the key, so a stale
+ * graph is simply never asked for again. Both maps are bounded and evict the least
+ * recently used entries; every access is synchronized, so concurrent module builds
+ * under {@code mvn -T} can share the cache.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+@Named
+@Singleton
+final class SourceModelCache {
+
+    static final int DEFAULT_MAX_FILES = 200_000;
+    static final int DEFAULT_MAX_GRAPHS = 64;
+
+    private final Map<String, SourceFile> files;
+    private final Map<String, PackageGraph> graphs;
+
+    @Inject
+    SourceModelCache() {
+        this(DEFAULT_MAX_FILES, DEFAULT_MAX_GRAPHS);
+    }
+
+    /**
+     * @param maxFiles  número máximo de arquivos guardados
+     * @param maxGraphs número máximo de grafos guardados
+     */
+    SourceModelCache(final int maxFiles, final int maxGraphs) {
+        this.files = lru(maxFiles);
+        this.graphs = lru(maxGraphs);
+    }
+
+    /**
+     * Arquivo já lido, se ainda tiver o tamanho e a data de modificação dados.
+     */
+    synchronized SourceFile lookup(final Path file, final long size, final long lastModified) {
+        final String key = keyOf(file);
+        final SourceFile cached = key != null ? files.get(key) : null;
+        return cached != null && cached.size() == size && cached.lastModified() == lastModified ? cached : null;
+    }
+
+    /**
+     * Guarda um arquivo lido; arquivos de dentro de zip/jar não são guardados.
+     */
+    synchronized void store(final SourceFile file) {
+        final String key = keyOf(file.path());
+        if (key != null) {
+            files.put(key, file);
+        }
+    }
+
+    /**
+     * Grafo guardado sob a chave, montando-o fora do lock se ainda não existir.
+     */
+    PackageGraph graph(final String key, final Supplier<PackageGraph> builder) {
+        synchronized (this) {
+            final PackageGraph cached = graphs.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        final PackageGraph graph = builder.get();
+        synchronized (this) {
+            graphs.putIfAbsent(key, graph);
+        }
+        return graph;
+    }
+
+    synchronized int fileCount() {
+        return files.size();
+    }
+
+    synchronized int graphCount() {
+        return graphs.size();
+    }
+
+    /**
+     * Chave de um arquivo do sistema de arquivos padrão, ou {@code null}.
+     */
+    private static String keyOf(final Path file) {
+        return file.getFileSystem() == FileSystems.getDefault() ? file.toAbsolutePath().toString() : null;
+    }
+
+    @SuppressWarnings("serial")
+    private static <V> Map<String, V> lru(final int capacity) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+}
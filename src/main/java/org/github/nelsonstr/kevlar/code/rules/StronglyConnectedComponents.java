@@ -0,0 +1,221 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the package tangles of a {@link PackageGraph}: its strongly connected
+ * components with more than one package.
+ *
+ * <p>
+ * Nodes with no incoming or no outgoing edge can never be part of a cycle, so they
+ * are peeled off first, repeatedly, in linear time; on mostly acyclic graphs this
+ * removes almost everything. The remaining nodes go through an iterative version
+ * of Tarjan's algorithm that keeps its own explicit stack, so deep graphs cannot
+ * overflow the thread stack. Every cycle in the graph lies entirely inside one of
+ * the returned components.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class StronglyConnectedComponents {
+
+    private StronglyConnectedComponents() {
+    }
+
+    /**
+     * Retorna os componentes com dois ou mais pacotes. Cada componente vem com os ids
+     * em ordem crescente e os componentes vêm ordenados pelo menor id.
+     */
+    static List<int[]> find(final PackageGraph graph) {
+        final boolean[] alive = trim(graph);
+        final List<int[]> components = tarjan(graph, alive);
+        components.sort((left, right) -> Integer.compare(left[0], right[0]));
+        return components;
+    }
+
+    /**
+     * Remove repetidamente os nós sem arestas de entrada ou de saída.
+     *
+     * @return marcação dos nós que ainda podem pertencer a um ciclo
+     */
+    static boolean[] trim(final PackageGraph graph) {
+        final int size = graph.size();
+        final int[] inDegree = new int[size];
+        final int[] outDegree = new int[size];
+        for (int node = 0; node < size; node++) {
+            outDegree[node] = graph.edgeEnd(node) - graph.edgeStart(node);
+            for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                inDegree[graph.target(edge)]++;
+            }
+        }
+
+        // arestas reversas em CSR, para atualizar os predecessores
+        final int[] reverseOffsets = new int[size + 1];
+        for (int node = 0; node < size; node++) {
+            reverseOffsets[node + 1] = reverseOffsets[node] + inDegree[node];
+        }
+        final int[] sources = new int[graph.edgeCount()];
+        final int[] fill = Arrays.copyOf(reverseOffsets, size);
+        for (int node = 0; node < size; node++) {
+            for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                sources[fill[graph.target(edge)]++] = node;
+            }
+        }
+
+        final boolean[] alive = new boolean[size];
+        final int[] queue = new int[size];
+        int tail = 0;
+        for (int node = 0; node < size; node++) {
+            if (inDegree[node] == 0 || outDegree[node] == 0) {
+                queue[tail++] = node;
+            } else {
+                alive[node] = true;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            final int node = queue[head];
+            for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                final int target = graph.target(edge);
+                if (alive[target] && --inDegree[target] == 0) {
+                    alive[target] = false;
+                    queue[tail++] = target;
+                }
+            }
+            for (int edge = reverseOffsets[node]; edge < reverseOffsets[node + 1]; edge++) {
+                final int source = sources[edge];
+                if (alive[source] && --outDegree[source] == 0) {
+                    alive[source] = false;
+                    queue[tail++] = source;
+                }
+            }
+        }
+        return alive;
+    }
+
+    /**
+     * Tarjan iterativo restrito aos nós vivos.
+     */
+    private static List<int[]> tarjan(final PackageGraph graph, final boolean[] alive) {
+        final int size = graph.size();
+        final int[] index = new int[size];
+        final int[] lowLink = new int[size];
+        final boolean[] onStack = new boolean[size];
+        Arrays.fill(index, -1);
+
+        final int[] componentStack = new int[size];
+        int componentTop = 0;
+        final int[] callNode = new int[size];
+        final int[] callEdge = new int[size];
+        int callTop = 0;
+        int counter = 0;
+
+        final List<int[]> components = new ArrayList<>();
+        for (int root = 0; root < size; root++) {
+            if (!alive[root] || index[root] != -1) {
+                continue;
+            }
+            index[root] = lowLink[root] = counter++;
+            componentStack[componentTop++] = root;
+            onStack[root] = true;
+            callNode[callTop] = root;
+            callEdge[callTop++] = graph.edgeStart(root);
+
+            while (callTop > 0) {
+                final int node = callNode[callTop - 1];
+                final int edge = callEdge[callTop - 1];
+                if (edge < graph.edgeEnd(node)) {
+                    callEdge[callTop - 1] = edge + 1;
+                    final int target = graph.target(edge);
+                    if (!alive[target]) {
+                        continue;
+                    }
+                    if (index[target] == -1) {
+                        index[target] = lowLink[target] = counter++;
+                        componentStack[componentTop++] = target;
+                        onStack[target] = true;
+                        callNode[callTop] = target;
+                        callEdge[callTop++] = graph.edgeStart(target);
+                    } else if (onStack[target]) {
+                        lowLink[node] = Math.min(lowLink[node], index[target]);
+                    }
+                    continue;
+                }
+
+                callTop--;
+                if (callTop > 0) {
+                    final int parent = callNode[callTop - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                }
+                if (lowLink[node] == index[node]) {
+                    int start = componentTop;
+                    do {
+                        onStack[componentStack[--start]] = false;
+                    } while (componentStack[start] != node);
+                    if (componentTop - start > 1) {
+                        final int[] component = Arrays.copyOfRange(componentStack, start, componentTop);
+                        Arrays.sort(component);
+                        components.add(component);
+                    }
+                    componentTop = start;
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Menor ciclo que passa pelo primeiro nó do componente.
+     */
+    static int[] shortestCycle(final PackageGraph graph, final int[] component) {
+        return shortestCycle(graph, component, component[0]);
+    }
+
+    /**
+     * Menor ciclo que passa por {@code start}, obtido por busca em largura restrita
+     * ao componente. O nó inicial é repetido no fim.
+     */
+    static int[] shortestCycle(final PackageGraph graph, final int[] component, final int start) {
+        final int[] parent = new int[graph.size()];
+        Arrays.fill(parent, -2);
+        for (final int member : component) {
+            parent[member] = -1;
+        }
+
+        final int[] queue = new int[component.length];
+        int tail = 0;
+        queue[tail++] = start;
+        parent[start] = start;
+        for (int head = 0; head < tail; head++) {
+            final int node = queue[head];
+            for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                final int target = graph.target(edge);
+                if (target == start) {
+                    return unwind(parent, node, start);
+                }
+                if (parent[target] == -1) {
+                    parent[target] = node;
+                    queue[tail++] = target;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Not a strongly connected component");
+    }
+
+    private static int[] unwind(final int[] parent, final int last, final int start) {
+        int length = 2;
+        for (int node = last; node != start; node = parent[node]) {
+            length++;
+        }
+        final int[] cycle = new int[length];
+        cycle[0] = start;
+        cycle[length - 1] = start;
+        int position = length - 2;
+        for (int node = last; node != start; node = parent[node]) {
+            cycle[position--] = node;
+        }
+        return cycle;
+    }
+}
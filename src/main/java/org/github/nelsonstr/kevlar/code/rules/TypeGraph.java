@@ -0,0 +1,430 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Type-level dependency graph: one node per scanned type, one edge per reference
+ * from a type to another project type.
+ *
+ * <p>
+ * The graph is built once per scan and then {@linkplain #project(Granularity)
+ * projected} to whatever granularity a check needs: the types themselves, their
+ * packages, or a prefix of the package name such as {@code com.acme.billing}. A
+ * projection maps every node to its group and every edge to the pair of groups,
+ * dropping self-edges; repeated pairs become a single edge whose weight counts
+ * them (see {@link PackageGraph#weight(int)}). The edges are grouped with counting
+ * sorts; only the distinct group names are sorted by comparison, so a projection
+ * takes O(n + e + g log g) for n types, e edges and g groups, and several
+ * granularities can be checked without rescanning. The result is a
+ * {@link PackageGraph} whose nodes are the groups.
+ * </p>
+ *
+ * <p>
+ * A wildcard import of a package does not name a type; it is an edge to the
+ * pseudo-type {@code package.*}, which belongs to that package and has no
+ * outgoing edges. References to external packages are kept by package only, so
+ * the projected graphs can still report external fan-out.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class TypeGraph {
+
+    /**
+     * Granularidade de uma projeção: o próprio tipo ({@code -1}), o pacote
+     * ({@code 0}) ou os primeiros {@code segments} segmentos do pacote.
+     *
+     * @param segments nível da projeção
+     */
+    record Granularity(int segments) {
+
+        static final Granularity TYPE = new Granularity(-1);
+        static final Granularity PACKAGE = new Granularity(0);
+
+        /**
+         * Lê {@code type}, {@code package} ou um número positivo de segmentos.
+         */
+        static Granularity parse(final String value) {
+            final String trimmed = value.trim();
+            if ("type".equalsIgnoreCase(trimmed)) {
+                return TYPE;
+            }
+            if ("package".equalsIgnoreCase(trimmed)) {
+                return PACKAGE;
+            }
+            try {
+                final int segments = Integer.parseInt(trimmed);
+                if (segments > 0) {
+                    return new Granularity(segments);
+                }
+            } catch (NumberFormatException e) {
+                // cai na exceção abaixo
+            }
+            throw new IllegalArgumentException("Unknown granularity '" + value
+                    + "' (expected 'type', 'package' or a number of package segments)");
+        }
+
+        /**
+         * Grupo do tipo nesta granularidade.
+         */
+        String groupOf(final String type, final String packageName) {
+            if (segments < 0) {
+                return type;
+            }
+            if (segments == 0) {
+                return packageName;
+            }
+            int end = -1;
+            for (int i = 0; i < segments; i++) {
+                end = packageName.indexOf('.', end + 1);
+                if (end < 0) {
+                    return packageName;
+                }
+            }
+            return packageName.substring(0, end);
+        }
+
+        /**
+         * Nome dos nós, para as mensagens.
+         */
+        String unit() {
+            return segments < 0 ? "types" : "packages";
+        }
+
+        @Override
+        public String toString() {
+            return segments < 0 ? "type" : segments == 0 ? "package" : Integer.toString(segments);
+        }
+    }
+
+    private final String[] types;
+    private final String[] packages;
+    private final int[] offsets;
+    private final int[] targets;
+    private final String[] externalNames;
+    private final int[] externalOffsets;
+    private final int[] externalTargets;
+
+    private TypeGraph(final String[] types, final String[] packages, final int[] offsets, final int[] targets,
+            final String[] externalNames, final int[] externalOffsets, final int[] externalTargets) {
+        this.types = types;
+        this.packages = packages;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.externalNames = externalNames;
+        this.externalOffsets = externalOffsets;
+        this.externalTargets = externalTargets;
+    }
+
+    /**
+     * Número de tipos (nós).
+     */
+    int size() {
+        return types.length;
+    }
+
+    /**
+     * Número de referências entre tipos do projeto (arestas, com repetições).
+     */
+    int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Nome do tipo com o id dado.
+     */
+    String name(final int node) {
+        return types[node];
+    }
+
+    /**
+     * Pacote do tipo com o id dado.
+     */
+    String packageName(final int node) {
+        return packages[node];
+    }
+
+    /**
+     * Posição da primeira referência do tipo em {@link #target(int)}.
+     */
+    int edgeStart(final int node) {
+        return offsets[node];
+    }
+
+    /**
+     * Posição seguinte à última referência do tipo.
+     */
+    int edgeEnd(final int node) {
+        return offsets[node + 1];
+    }
+
+    /**
+     * Tipo referenciado na posição dada.
+     */
+    int target(final int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * Número de referências a pacotes externos (com repetições).
+     */
+    int externalEdgeCount() {
+        return externalTargets.length;
+    }
+
+    /**
+     * Número de pacotes externos distintos.
+     */
+    int externalCount() {
+        return externalNames.length;
+    }
+
+    /**
+     * Nome do pacote externo com o id dado.
+     */
+    String externalName(final int external) {
+        return externalNames[external];
+    }
+
+    /**
+     * Posição da primeira referência externa do tipo em {@link #externalTarget(int)}.
+     */
+    int externalEdgeStart(final int node) {
+        return externalOffsets[node];
+    }
+
+    /**
+     * Posição seguinte à última referência externa do tipo.
+     */
+    int externalEdgeEnd(final int node) {
+        return externalOffsets[node + 1];
+    }
+
+    /**
+     * Pacote externo referenciado na posição dada.
+     */
+    int externalTarget(final int edge) {
+        return externalTargets[edge];
+    }
+
+    /**
+     * Projeta o grafo na granularidade dada: linear nos tipos e arestas, mais a
+     * ordenação dos nomes dos grupos.
+     */
+    PackageGraph project(final Granularity granularity) {
+        final int n = types.length;
+
+        // grupo de cada nó; os ids seguem a ordem dos nomes, como no PackageGraph
+        final String[] groupNames = new String[n];
+        final Set<String> distinct = new LinkedHashSet<>();
+        for (int node = 0; node < n; node++) {
+            groupNames[node] = granularity.groupOf(types[node], packages[node]);
+            distinct.add(groupNames[node]);
+        }
+        final String[] names = distinct.toArray(new String[0]);
+        Arrays.sort(names);
+        final Map<String, Integer> ids = new HashMap<>(names.length * 2);
+        for (int id = 0; id < names.length; id++) {
+            ids.put(names[id], id);
+        }
+        final int groups = names.length;
+        final int[] groupOf = new int[n];
+        for (int node = 0; node < n; node++) {
+            groupOf[node] = ids.get(groupNames[node]);
+        }
+
+        // arestas agrupadas pelo destino (counting sort)
+        final int edges = targets.length;
+        final int[] byTarget = new int[groups + 1];
+        for (final int target : targets) {
+            byTarget[groupOf[target] + 1]++;
+        }
+        for (int g = 0; g < groups; g++) {
+            byTarget[g + 1] += byTarget[g];
+        }
+        final int[] sources = new int[edges];
+        final int[] fill = Arrays.copyOf(byTarget, groups);
+        for (int node = 0; node < n; node++) {
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                sources[fill[groupOf[targets[e]]]++] = groupOf[node];
+            }
+        }
+
+        // em ordem de destino, descarta laços e soma as repetições no peso da aresta
+        // mantida (a última aresta de cada origem é sempre a do destino atual) e conta
+        // as arestas por origem
+        final int[] last = new int[groups];
+        Arrays.fill(last, -1);
+        final int[] lastKept = new int[groups];
+        final int[] keptSources = new int[edges];
+        final int[] keptTargets = new int[edges];
+        final int[] keptWeights = new int[edges];
+        final int[] rowOffsets = new int[groups + 1];
+        int kept = 0;
+        for (int target = 0; target < groups; target++) {
+            for (int i = byTarget[target]; i < byTarget[target + 1]; i++) {
+                final int source = sources[i];
+                if (source == target) {
+                    continue;
+                }
+                if (last[source] == target) {
+                    keptWeights[lastKept[source]]++;
+                    continue;
+                }
+                last[source] = target;
+                lastKept[source] = kept;
+                keptSources[kept] = source;
+                keptTargets[kept] = target;
+                keptWeights[kept] = 1;
+                kept++;
+                rowOffsets[source + 1]++;
+            }
+        }
+        for (int g = 0; g < groups; g++) {
+            rowOffsets[g + 1] += rowOffsets[g];
+        }
+
+        // linhas por origem, estáveis: cada linha fica ordenada pelo destino
+        final int[] rows = new int[kept];
+        final int[] weights = new int[kept];
+        final int[] position = Arrays.copyOf(rowOffsets, groups);
+        for (int i = 0; i < kept; i++) {
+            final int slot = position[keptSources[i]]++;
+            rows[slot] = keptTargets[i];
+            weights[slot] = keptWeights[i];
+        }
+        return PackageGraph.of(names, rowOffsets, rows, weights, externalFanOut(groupOf, groups));
+    }
+
+    /**
+     * Número de pacotes externos distintos de cada grupo.
+     */
+    private int[] externalFanOut(final int[] groupOf, final int groups) {
+        final int[] byExternal = new int[externalNames.length + 1];
+        for (final int external : externalTargets) {
+            byExternal[external + 1]++;
+        }
+        for (int x = 0; x < externalNames.length; x++) {
+            byExternal[x + 1] += byExternal[x];
+        }
+        final int[] sources = new int[externalTargets.length];
+        final int[] fill = Arrays.copyOf(byExternal, externalNames.length);
+        for (int node = 0; node < types.length; node++) {
+            for (int e = externalOffsets[node]; e < externalOffsets[node + 1]; e++) {
+                sources[fill[externalTargets[e]]++] = groupOf[node];
+            }
+        }
+
+        final int[] fanOut = new int[groups];
+        final int[] last = new int[groups];
+        Arrays.fill(last, -1);
+        for (int external = 0; external < externalNames.length; external++) {
+            for (int i = byExternal[external]; i < byExternal[external + 1]; i++) {
+                if (last[sources[i]] != external) {
+                    last[sources[i]] = external;
+                    fanOut[sources[i]]++;
+                }
+            }
+        }
+        return fanOut;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Acumula tipos e referências e produz o {@link TypeGraph}; não é thread-safe.
+     */
+    static final class Builder {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final Map<String, Integer> externalIds = new HashMap<>();
+        private String[] types = new String[256];
+        private String[] packages = new String[256];
+        private long[] edges = new long[256];
+        private int edgeCount;
+        private long[] externalEdges = new long[256];
+        private int externalEdgeCount;
+
+        private Builder() {
+        }
+
+        /**
+         * Registra o tipo e retorna o seu id.
+         */
+        int addType(final String type, final String packageName) {
+            final Integer existing = ids.get(type);
+            if (existing != null) {
+                return existing;
+            }
+            final int id = ids.size();
+            if (id == types.length) {
+                types = Arrays.copyOf(types, id * 2);
+                packages = Arrays.copyOf(packages, id * 2);
+            }
+            ids.put(type, id);
+            types[id] = type;
+            packages[id] = packageName;
+            return id;
+        }
+
+        /**
+         * Registra a referência de {@code from} ao tipo do projeto {@code to}.
+         */
+        void addEdge(final String from, final String fromPackage, final String to, final String toPackage) {
+            final int source = addType(from, fromPackage);
+            final int target = addType(to, toPackage);
+            if (edgeCount == edges.length) {
+                edges = Arrays.copyOf(edges, edgeCount * 2);
+            }
+            edges[edgeCount++] = ((long) source << 32) | target;
+        }
+
+        /**
+         * Registra a referência de {@code from} a um pacote externo.
+         */
+        void addExternalEdge(final String from, final String fromPackage, final String externalPackage) {
+            final int source = addType(from, fromPackage);
+            final int target = externalIds.computeIfAbsent(externalPackage, key -> externalIds.size());
+            if (externalEdgeCount == externalEdges.length) {
+                externalEdges = Arrays.copyOf(externalEdges, externalEdgeCount * 2);
+            }
+            externalEdges[externalEdgeCount++] = ((long) source << 32) | target;
+        }
+
+        TypeGraph build() {
+            final int n = ids.size();
+            final int[] offsets = new int[n + 1];
+            final int[] targets = rows(edges, edgeCount, n, offsets);
+            final int[] externalOffsets = new int[n + 1];
+            final int[] externalTargets = rows(externalEdges, externalEdgeCount, n, externalOffsets);
+            final String[] externalNames = new String[externalIds.size()];
+            externalIds.forEach((name, id) -> externalNames[id] = name);
+            return new TypeGraph(Arrays.copyOf(types, n), Arrays.copyOf(packages, n), offsets, targets,
+                    externalNames, externalOffsets, externalTargets);
+        }
+
+        /**
+         * Distribui os pares (origem, destino) em linhas por origem (counting sort).
+         */
+        private static int[] rows(final long[] pairs, final int count, final int n, final int[] offsets) {
+            for (int i = 0; i < count; i++) {
+                offsets[(int) (pairs[i] >>> 32) + 1]++;
+            }
+            for (int node = 0; node < n; node++) {
+                offsets[node + 1] += offsets[node];
+            }
+            final int[] targets = new int[count];
+            final int[] fill = Arrays.copyOf(offsets, n);
+            for (int i = 0; i < count; i++) {
+                targets[fill[(int) (pairs[i] >>> 32)]++] = (int) pairs[i];
+            }
+            return targets;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the packages and types declared by the scanned sources, used to turn an
+ * import declaration into the package it depends on.
+ *
+ * <p>
+ * An import names a package ({@code import a.b.*;}), a type
+ * ({@code import a.b.C;}), a nested type ({@code import a.b.Outer.Inner;}) or a
+ * static member ({@code import static a.b.Util.max;}). In every case the package
+ * it depends on is the package of the outermost type in the name. The index keeps
+ * the qualified names of the project types in a trie of name segments, so that
+ * type is found by walking the longest prefix of the name that the trie knows,
+ * in time proportional to the number of segments.
+ * </p>
+ *
+ * <p>
+ * Names that are not in the project (JDK and libraries) fall back to the Java
+ * naming convention: the first segment that starts with an upper-case letter is
+ * the outermost type, and the segments before it are the package.
+ * </p>
+ *
+ * @author Nelson Str
+ * @since 2.1.0
+ */
+final class TypeIndex {
+
+    /** Nó da trie: um segmento de nome; {@code packageName} é não nulo se o nó for um tipo */
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private String packageName;
+        /** Nome do tipo como registrado ({@code a.b.Outer$Inner} para classes aninhadas) */
+        private String typeName;
+    }
+
+    private final Set<String> packages;
+    private final Map<String, String> packageByType;
+    private final Node root;
+
+    private TypeIndex(final Set<String> packages, final Map<String, String> packageByType, final Node root) {
+        this.packages = packages;
+        this.packageByType = packageByType;
+        this.root = root;
+    }
+
+    /**
+     * Se o pacote é declarado por algum fonte analisado.
+     */
+    boolean isPackage(final String name) {
+        return packages.contains(name);
+    }
+
+    /**
+     * Pacote do tipo do projeto com esse nome qualificado, ou {@code null}.
+     */
+    String packageOfType(final String name) {
+        return packageByType.get(name);
+    }
+
+    /**
+     * Pacote de que o import depende, ou {@code null} se não houver um.
+     */
+    String resolve(final ImportDeclaration importDecl) {
+        final String name = importDecl.name();
+        final boolean namesPackage = importDecl.onDemand() && !importDecl.staticImport();
+        if (namesPackage && packages.contains(name)) {
+            return name;
+        }
+        final String owner = ownerOf(name);
+        if (owner != null) {
+            return owner;
+        }
+        // fora do projeto: segue a convenção de nomes
+        final String conventional = packageBeforeFirstType(name);
+        if (conventional != null) {
+            return conventional;
+        }
+        if (namesPackage) {
+            return name;
+        }
+        // sem segmento em maiúscula: o último nome é o membro ou o tipo
+        final String typeName = importDecl.staticImport() && !importDecl.onDemand() ? importDecl.qualifier() : name;
+        final int lastDot = typeName == null ? -1 : typeName.lastIndexOf('.');
+        return lastDot < 0 ? null : typeName.substring(0, lastDot);
+    }
+
+    /**
+     * Pacote do tipo do projeto que é o prefixo mais longo do nome, ou {@code null}.
+     * Aceita também nomes binários, com {@code $} antes dos tipos aninhados.
+     */
+    String ownerOf(final String name) {
+        final Node type = deepestType(name);
+        return type != null ? type.packageName : null;
+    }
+
+    /**
+     * Tipo do projeto que é o prefixo mais longo do nome, com o nome com que foi
+     * registrado, ou {@code null}.
+     */
+    String typeOf(final String name) {
+        final Node type = deepestType(name);
+        return type != null ? type.typeName : null;
+    }
+
+    private Node deepestType(final String name) {
+        Node node = root;
+        Node owner = null;
+        int start = 0;
+        while (node != null && start < name.length()) {
+            int end = start;
+            while (end < name.length() && name.charAt(end) != '.' && name.charAt(end) != '$') {
+                end++;
+            }
+            node = node.children.get(name.substring(start, end));
+            if (node != null && node.packageName != null) {
+                owner = node;
+            }
+            start = end + 1;
+        }
+        return owner;
+    }
+
+    /**
+     * Segmentos antes do primeiro que começa com maiúscula, ou {@code null} se não
+     * houver um (ou se o primeiro segmento já for um tipo).
+     */
+    private static String packageBeforeFirstType(final String name) {
+        int start = 0;
+        while (start < name.length()) {
+            if (Character.isUpperCase(name.charAt(start))) {
+                return start == 0 ? null : name.substring(0, start - 1);
+            }
+            final int dot = name.indexOf('.', start);
+            if (dot < 0) {
+                return null;
+            }
+            start = dot + 1;
+        }
+        return null;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Acumula os tipos declarados; não é thread-safe.
+     */
+    static final class Builder {
+        private final Set<String> packages = new HashSet<>();
+        private final Map<String, String> packageByType = new HashMap<>();
+        private final Node root = new Node();
+
+        private Builder() {
+        }
+
+        /**
+         * Registra o tipo {@code simpleName} do pacote; nomes de tipos aninhados
+         * separados por {@code $} ou {@code .} registram também os tipos externos.
+         */
+        Builder addType(final String packageName, final String simpleName) {
+            packages.add(packageName);
+            Node node = root;
+            for (final String segment : packageName.split("\\.")) {
+                node = node.children.computeIfAbsent(segment, key -> new Node());
+            }
+            String qualified = packageName;
+            int start = 0;
+            while (start < simpleName.length()) {
+                int end = start;
+                while (end < simpleName.length() && simpleName.charAt(end) != '$' && simpleName.charAt(end) != '.') {
+                    end++;
+                }
+                if (end > start) {
+                    final String segment = simpleName.substring(start, end);
+                    qualified = qualified + "." + segment;
+                    packageByType.putIfAbsent(qualified, packageName);
+                    node = node.children.computeIfAbsent(segment, key -> new Node());
+                    if (node.packageName == null) {
+                        node.packageName = packageName;
+                    }
+                    // o tipo do próprio arquivo prevalece sobre o nome deduzido de um aninhado
+                    if (end == simpleName.length() || node.typeName == null) {
+                        node.typeName = packageName + "." + simpleName.substring(0, end);
+                    }
+                }
+                start = end + 1;
+            }
+            return this;
+        }
+
+        TypeIndex build() {
+            return new TypeIndex(Set.copyOf(packages), Map.copyOf(packageByType), root);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.apache.maven.enforcer.rule.api.EnforcerRuleException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Enforcer 3.x {@link AccessRules} rule.
+ * <p>
+ * The rule is built the way the container builds it, on a
+ * {@link ScanRuleFixture}, and checked against the rulesets bundled with the
+ * plugin.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see AccessRules
+ */
+class AccessRulesTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ScanRuleFixture fixture;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new ScanRuleFixture(tempDir);
+    }
+
+    /**
+     * Tests that violations are reported and that cycles are ignored.
+     */
+    @Test
+    void testExecute_ReportsViolationsOnly() throws IOException {
+        // Given: a cycle between model and persistence, which is also a layering violation
+        fixture.writeSource("com.acme.model", "Order", "com.acme.persistence.OrderDao");
+        fixture.writeSource("com.acme.persistence", "OrderDao", "com.acme.model.Order");
+        var rule = rule();
+        rule.setRulesets(List.of("macker/layering.xml"));
+        rule.setVariables(Map.of("base", "com.acme"));
+
+        // When
+        var ex = assertThrows(EnforcerRuleException.class, rule::execute);
+
+        // Then
+        assertTrue(ex.getMessage().contains("The persistence layer can't access the model"), ex.getMessage());
+        assertFalse(ex.getMessage().contains("com.acme.model → com.acme.persistence"), ex.getMessage());
+    }
+
+    /**
+     * Tests that a rule without rulesets is a configuration error.
+     */
+    @Test
+    void testExecute_RequiresRulesets() {
+        var ex = assertThrows(EnforcerRuleException.class, rule()::execute);
+        assertTrue(ex.getMessage().contains("rulesets"), ex.getMessage());
+    }
+
+    /**
+     * Creates a rule for the temporary project, as the container would.
+     */
+    private AccessRules rule() {
+        return fixture.withLogger(new AccessRules(fixture.project(), new SourceModelCache()));
+    }
+}
@@ -0,0 +1,108 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ClassFileReader}.
+ * <p>
+ * These tests read class files compiled from this module, so they exercise real
+ * constant pools produced by the current compiler.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see ClassFileReader
+ */
+class ClassFileReaderTest {
+
+    /**
+     * Fixture whose only references to some types are in signatures and annotations.
+     */
+    @SuppressWarnings("unused")
+    static class Fixture {
+        private List<Duration> durations;
+
+        @Deprecated
+        Map<String, java.util.concurrent.TimeUnit> units(final java.util.function.Supplier<? extends Number> s) {
+            return null;
+        }
+    }
+
+    /**
+     * Tests that the package and the referenced classes of a real class are found.
+     */
+    @Test
+    void testRead_ReferencedClasses() throws IOException {
+        // When
+        var header = read(PackageGraph.class);
+
+        // Then
+        assertEquals("org.github.nelsonstr.kevlar.code.rules", header.packageName());
+        var names = names(header);
+        assertTrue(names.contains("java.util.ArrayList"), names::toString);
+        assertTrue(names.contains("org.github.nelsonstr.kevlar.code.rules.PackageGraph$Builder"), names::toString);
+        assertFalse(names.contains("org.github.nelsonstr.kevlar.code.rules.PackageGraph"), names::toString);
+        var list = header.imports().stream().filter(i -> i.name().equals("java.util.ArrayList")).findFirst()
+                .orElseThrow();
+        assertEquals("java.util", list.qualifier());
+    }
+
+    /**
+     * Tests that types used only in generic signatures and annotations are found.
+     */
+    @Test
+    void testRead_SignaturesAndAnnotations() throws IOException {
+        // When
+        var names = names(read(Fixture.class));
+
+        // Then
+        assertTrue(names.containsAll(Set.of("java.time.Duration", "java.util.concurrent.TimeUnit",
+                "java.util.function.Supplier", "java.lang.Number", "java.lang.Deprecated")), names::toString);
+    }
+
+    /**
+     * Tests that interfaces and abstract classes are abstract types.
+     */
+    @Test
+    void testRead_DetectsAbstractTypes() throws IOException {
+        assertTrue(read(SourceScanner.HeaderReader.class).abstractType());
+        assertTrue(read(java.util.AbstractList.class).abstractType());
+        assertFalse(read(PackageGraph.class).abstractType());
+    }
+
+    /**
+     * Tests that content that is not a class file is rejected.
+     */
+    @Test
+    void testRead_RejectsMalformedInput() {
+        // When / Then
+        assertThrows(IOException.class,
+                () -> ClassFileReader.read(ByteBuffer.wrap(new byte[] {1, 2, 3, 4}), new NameInterner()));
+        assertThrows(IOException.class, () -> ClassFileReader.read(
+                ByteBuffer.wrap(new byte[] {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0}),
+                new NameInterner()));
+    }
+
+    private static SourceHeader read(final Class<?> type) throws IOException {
+        try (InputStream in = type.getResourceAsStream(type.getName().substring(type.getPackageName().length() + 1)
+                + ".class")) {
+            return ClassFileReader.read(ByteBuffer.wrap(in.readAllBytes()), new NameInterner());
+        }
+    }
+
+    private static Set<String> names(final SourceHeader header) {
+        return header.imports().stream().map(ImportDeclaration::name).collect(Collectors.toSet());
+    }
+}
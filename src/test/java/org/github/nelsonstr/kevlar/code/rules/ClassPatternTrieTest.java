@@ -0,0 +1,66 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ClassPatternTrie}.
+ * <p>
+ * These tests compile a few Macker class patterns into one trie and check which
+ * of them each class name matches.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see ClassPatternTrie
+ */
+class ClassPatternTrieTest {
+
+    /**
+     * Tests literal, glob and multi-segment patterns sharing a prefix.
+     */
+    @Test
+    void testMatch_SegmentKinds() {
+        // Given
+        var trie = new ClassPatternTrie();
+        var persistence = trie.add("com.acme.persistence.**");
+        var factory = trie.add("com.acme.*Factory");
+        var exact = trie.add("com.acme.App");
+        var impl = trie.add("com.acme.**.impl.*");
+
+        // When / Then
+        assertTrue(trie.match("com.acme.persistence.Dao").get(persistence));
+        assertTrue(trie.match("com.acme.persistence.jdbc.Dao").get(persistence));
+        assertFalse(trie.match("com.acme.persistence").get(persistence));
+        assertTrue(trie.match("com.acme.BillingFactory").get(factory));
+        assertFalse(trie.match("com.acme.billing.BillingFactory").get(factory));
+        assertEquals(1, trie.match("com.acme.App").cardinality());
+        assertTrue(trie.match("com.acme.App").get(exact));
+        assertTrue(trie.match("com.acme.billing.orders.impl.Service").get(impl));
+        assertFalse(trie.match("com.acme.impl.Service").get(impl));
+        assertEquals(4, trie.size());
+    }
+
+    /**
+     * Tests the in-segment wildcard matcher.
+     */
+    @Test
+    void testGlobMatches() {
+        assertTrue(ClassPatternTrie.globMatches("*", ""));
+        assertTrue(ClassPatternTrie.globMatches("*Factory", "FactoryFactory"));
+        assertTrue(ClassPatternTrie.globMatches("Abstract*Dao", "AbstractUserDao"));
+        assertFalse(ClassPatternTrie.globMatches("Abstract*Dao", "AbstractUserDaoImpl"));
+        assertFalse(ClassPatternTrie.globMatches("*Factory", "Factor"));
+    }
+
+    /**
+     * Tests that {@code **} inside a segment is rejected.
+     */
+    @Test
+    void testAdd_RejectsPartialMultiSegmentWildcard() {
+        var trie = new ClassPatternTrie();
+        assertThrows(IllegalArgumentException.class, () -> trie.add("com.acme.impl**"));
+    }
+}
@@ -0,0 +1,79 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link DependencyConstraints}.
+ * <p>
+ * These tests check small type graphs against forbidden and allowed package
+ * dependencies.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see DependencyConstraints
+ */
+class DependencyConstraintsTest {
+
+    /**
+     * Tests internal and external edges against forbidden constraints and their exceptions.
+     */
+    @Test
+    void testCheck_ForbiddenAndAllowed() {
+        // Given
+        var builder = TypeGraph.builder();
+        builder.addEdge("com.acme.domain.Order", "com.acme.domain", "com.acme.web.Controller", "com.acme.web");
+        builder.addExternalEdge("com.acme.domain.Order", "com.acme.domain", "java.sql");
+        builder.addExternalEdge("com.acme.domain.Order", "com.acme.domain", "java.util");
+        builder.addExternalEdge("com.acme.domain.jdbc.Mapper", "com.acme.domain.jdbc", "java.sql");
+        builder.addExternalEdge("com.acme.web.Controller", "com.acme.web", "org.springframework.web");
+        builder.addExternalEdge("com.acme.domain.Order", "com.acme.domain", "org.springframework.util");
+        var constraints = DependencyConstraints.compile(
+                List.of("..domain.. -> java.sql, org.springframework, ..web..", "sun.."),
+                List.of("..domain.jdbc.. -> java.sql"));
+
+        // When
+        var violations = constraints.check(builder.build());
+
+        // Then
+        assertEquals(List.of(
+                new DependencyConstraints.Violation("..domain.. -> ..web..", "com.acme.domain.Order",
+                        "com.acme.web.Controller"),
+                new DependencyConstraints.Violation("..domain.. -> java.sql", "com.acme.domain.Order", "java.sql"),
+                new DependencyConstraints.Violation("..domain.. -> org.springframework", "com.acme.domain.Order",
+                        "org.springframework.util")),
+                violations);
+    }
+
+    /**
+     * Tests that a constraint without a source applies to every package.
+     */
+    @Test
+    void testCheck_WithoutSource() {
+        // Given
+        var builder = TypeGraph.builder();
+        builder.addExternalEdge("com.acme.a.A", "com.acme.a", "sun.misc");
+        var constraints = DependencyConstraints.compile(List.of("sun.., com.sun.."), List.of());
+
+        // When / Then
+        assertEquals(List.of(new DependencyConstraints.Violation(".. -> sun..", "com.acme.a.A", "sun.misc")),
+                constraints.check(builder.build()));
+    }
+
+    /**
+     * Tests that malformed constraints are rejected and that allowed-only sets are empty.
+     */
+    @Test
+    void testCompile_InvalidConstraints() {
+        assertThrows(IllegalArgumentException.class, () -> DependencyConstraints.compile(List.of("a -> "), List.of()));
+        var ex = assertThrows(IllegalArgumentException.class,
+                () -> DependencyConstraints.compile(List.of("a..b. -> c"), List.of()));
+        assertTrue(ex.getMessage().contains("a..b. -> c"), ex.getMessage());
+        assertTrue(DependencyConstraints.compile(List.of(), List.of("a -> b")).isEmpty());
+    }
+}
@@ -0,0 +1,109 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ElementaryCycles}.
+ * <p>
+ * A complete directed graph on {@code n} packages has a known number of elementary
+ * cycles, which makes it a convenient fixture for checking that the enumeration is
+ * complete, free of duplicates and respects its limits.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see ElementaryCycles
+ */
+class ElementaryCyclesTest {
+
+    /**
+     * Tests that all 20 elementary cycles of a complete 4-node graph are found once.
+     */
+    @Test
+    void testEnumerate_FindsEveryCycleOnce() {
+        // Given
+        var graph = completeGraph(4);
+        var seen = new HashSet<String>();
+
+        // When
+        var outcome = ElementaryCycles.enumerate(graph, component(4), 0, 0, 0,
+                cycle -> assertTrue(seen.add(Arrays.toString(cycle)), Arrays.toString(cycle)));
+
+        // Then: C(4,2)·1! + C(4,3)·2! + C(4,4)·3! = 6 + 8 + 6
+        assertEquals(ElementaryCycles.Outcome.COMPLETE, outcome);
+        assertEquals(20, seen.size());
+    }
+
+    /**
+     * Tests that the maximum length keeps only the short cycles.
+     */
+    @Test
+    void testEnumerate_RespectsMaxLength() {
+        // Given
+        var graph = completeGraph(4);
+        var count = new int[1];
+
+        // When
+        var outcome = ElementaryCycles.enumerate(graph, component(4), 2, 0, 0, cycle -> {
+            assertEquals(3, cycle.length);
+            count[0]++;
+        });
+
+        // Then: only the six 2-cycles
+        assertEquals(ElementaryCycles.Outcome.COMPLETE, outcome);
+        assertEquals(6, count[0]);
+    }
+
+    /**
+     * Tests that enumeration stops at the cycle limit.
+     */
+    @Test
+    void testEnumerate_StopsAtCycleLimit() {
+        // Given
+        var count = new int[1];
+
+        // When
+        var outcome = ElementaryCycles.enumerate(completeGraph(4), component(4), 0, 5, 0, cycle -> count[0]++);
+
+        // Then
+        assertEquals(ElementaryCycles.Outcome.CYCLE_LIMIT, outcome);
+        assertEquals(5, count[0]);
+    }
+
+    /**
+     * Tests that enumeration stops when the time budget runs out.
+     */
+    @Test
+    void testEnumerate_StopsAtTimeBudget() {
+        // Given: a complete 12-node graph has far more cycles than can be listed in 1 ms
+        var graph = completeGraph(12);
+
+        // When
+        var outcome = ElementaryCycles.enumerate(graph, component(12), 0, 0, 1, cycle -> { });
+
+        // Then
+        assertEquals(ElementaryCycles.Outcome.TIME_BUDGET, outcome);
+    }
+
+    private static PackageGraph completeGraph(final int size) {
+        var builder = PackageGraph.builder();
+        for (int from = 0; from < size; from++) {
+            for (int to = 0; to < size; to++) {
+                builder.addEdge("p%02d".formatted(from), "p%02d".formatted(to));
+            }
+        }
+        return builder.build();
+    }
+
+    private static int[] component(final int size) {
+        var ids = new int[size];
+        Arrays.setAll(ids, i -> i);
+        return ids;
+    }
+}
@@ -0,0 +1,97 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ExclusionMatcher}.
+ * <p>
+ * The matcher splits patterns between a literal prefix trie and separately
+ * compiled regexes; these tests check that the combined result is the same as
+ * matching every pattern with {@link Pattern#matches(String, CharSequence)}.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see ExclusionMatcher
+ */
+class ExclusionMatcherTest {
+
+    /**
+     * Tests that literal prefixes, exact names and regexes all behave like plain regex matching.
+     */
+    @Test
+    void testMatches_AgreesWithRegexSemantics() {
+        // Given
+        var patterns = List.of(
+                "com\\.acme\\.generated\\..*",
+                "com\\.acme\\.legacy",
+                ".*\\.internal\\..*",
+                "org\\.(foo|bar)\\.impl");
+        var matcher = ExclusionMatcher.compile(patterns);
+        var names = List.of(
+                "com.acme.generated.model", "com.acme.generated", "com.acme.generatedx",
+                "com.acme.legacy", "com.acme.legacy.sub",
+                "a.internal.b", "internal.b",
+                "org.foo.impl", "org.baz.impl", "");
+
+        // When / Then: every answer matches the naive evaluation, also when memoized
+        for (int round = 0; round < 2; round++) {
+            for (var name : names) {
+                var expected = patterns.stream().anyMatch(p -> Pattern.matches(p, name));
+                assertEquals(expected, matcher.matches(name), name);
+            }
+        }
+    }
+
+    /**
+     * Tests that groups and backreferences keep their meaning when several regex
+     * patterns are configured, and that a syntax error names the bad pattern.
+     */
+    @Test
+    void testMatches_BackreferencesStayPerPattern() {
+        // Given: the second pattern's \1 refers to its own group
+        var matcher = ExclusionMatcher.compile(List.of("(com|org)\\..*\\.impl", "(\\w+)\\.\\1"));
+
+        // When / Then
+        assertTrue(matcher.matches("com.acme.impl"));
+        assertTrue(matcher.matches("foo.foo"));
+        assertFalse(matcher.matches("foo.bar"));
+
+        // When / Then
+        var ex = assertThrows(PatternSyntaxException.class,
+                () -> ExclusionMatcher.compile(List.of("com\\..*", "[broken")));
+        assertEquals("[broken", ex.getPattern());
+    }
+
+    /**
+     * Tests that an unescaped dot is not mistaken for a literal one.
+     */
+    @Test
+    void testMatches_UnescapedDotIsRegex() {
+        // Given
+        var matcher = ExclusionMatcher.compile(List.of("com.acme"));
+
+        // When / Then
+        assertTrue(matcher.matches("com.acme"));
+        assertTrue(matcher.matches("comXacme"));
+    }
+
+    /**
+     * Tests that an empty pattern list never excludes anything.
+     */
+    @Test
+    void testMatches_EmptyPatterns() {
+        // Given
+        var matcher = ExclusionMatcher.compile(List.of());
+
+        // When / Then
+        assertFalse(matcher.matches("com.acme"));
+    }
+}
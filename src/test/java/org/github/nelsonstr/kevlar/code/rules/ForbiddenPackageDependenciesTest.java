@@ -0,0 +1,80 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.apache.maven.enforcer.rule.api.EnforcerRuleException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Enforcer 3.x {@link ForbiddenPackageDependencies} rule.
+ * <p>
+ * The rule is built the way the container builds it, with the project and a
+ * shared {@link SourceModelCache} passed to its constructor, on a
+ * {@link ScanRuleFixture}.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see ForbiddenPackageDependencies
+ */
+class ForbiddenPackageDependenciesTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ScanRuleFixture fixture;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new ScanRuleFixture(tempDir);
+    }
+
+    /**
+     * Tests that violations are reported and that cycles are ignored.
+     */
+    @Test
+    void testExecute_ReportsViolationsOnly() throws IOException {
+        // Given: a cycle between domain and web, and a domain type using JDBC
+        fixture.writeSource("com.acme.domain", "Order", "com.acme.web.Controller", "java.sql.Connection");
+        fixture.writeSource("com.acme.web", "Controller", "com.acme.domain.Order");
+        var rule = rule();
+        rule.setForbidden(List.of("..domain.. -> java.sql"));
+
+        // When
+        var ex = assertThrows(EnforcerRuleException.class, rule::execute);
+
+        // Then
+        assertTrue(ex.getMessage().contains("[..domain.. -> java.sql] com.acme.domain.Order → java.sql"),
+                ex.getMessage());
+        assertFalse(ex.getMessage().contains("com.acme.domain → com.acme.web"), ex.getMessage());
+
+        // When / Then: an exception clears the violation
+        rule.setAllowed(List.of("com.acme.domain -> java.sql"));
+        assertDoesNotThrow(rule::execute);
+        assertTrue(fixture.messages().contains("✅ No dependency rule violations found"),
+                fixture.messages().toString());
+    }
+
+    /**
+     * Tests that a rule without forbidden dependencies is a configuration error.
+     */
+    @Test
+    void testExecute_RequiresForbidden() {
+        var ex = assertThrows(EnforcerRuleException.class, rule()::execute);
+        assertTrue(ex.getMessage().contains("forbidden"), ex.getMessage());
+    }
+
+    /**
+     * Creates a rule for the temporary project, as the container would.
+     */
+    private ForbiddenPackageDependencies rule() {
+        return fixture.withLogger(new ForbiddenPackageDependencies(fixture.project(), new SourceModelCache()));
+    }
+}
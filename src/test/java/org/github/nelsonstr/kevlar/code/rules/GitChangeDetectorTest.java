@@ -0,0 +1,106 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link GitChangeDetector}.
+ * <p>
+ * These tests build a small repository with JGit and check which files are reported
+ * as changed between two analyses.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see GitChangeDetector
+ */
+class GitChangeDetectorTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that a directory outside any repository is not handled.
+     */
+    @Test
+    void testOpen_NoRepository() throws IOException {
+        // Given
+        var srcRoot = Files.createDirectories(tempDir.resolve("src/main/java"));
+
+        // When / Then
+        assertNull(GitChangeDetector.open(srcRoot));
+    }
+
+    /**
+     * Tests that committed, modified, untracked and reverted files are all reported.
+     */
+    @Test
+    void testChangedSince_CommittedAndWorkingTreeChanges() throws IOException, GitAPIException {
+        try (Git git = Git.init().setDirectory(tempDir.toFile()).call()) {
+            // Given: a first commit with A and B, analysed while C was being edited
+            var srcRoot = Files.createDirectories(tempDir.resolve("src/main/java/p"));
+            var a = Files.writeString(srcRoot.resolve("A.java"), "package p;\nclass A {}\n");
+            var b = Files.writeString(srcRoot.resolve("B.java"), "package p;\nclass B {}\n");
+            Files.writeString(tempDir.resolve("README.md"), "readme\n");
+            commit(git, "first");
+            var c = Files.writeString(srcRoot.resolve("C.java"), "package p;\nclass C {}\n");
+
+            GitBaseline previous;
+            try (var detector = GitChangeDetector.open(tempDir.resolve("src/main/java"))) {
+                previous = detector.snapshot();
+            }
+            assertEquals(Set.of(c.toString()), previous.dirtyPaths());
+
+            // When: B is changed in a new commit, C is dropped and A is edited locally
+            Files.writeString(b, "package p;\nclass B { A a; }\n");
+            Files.writeString(tempDir.resolve("README.md"), "changed\n");
+            commit(git, "second");
+            Files.delete(c);
+            Files.writeString(a, "package p;\nclass A { B b; }\n");
+
+            // Then
+            try (var detector = GitChangeDetector.open(tempDir.resolve("src/main/java"))) {
+                var current = detector.snapshot();
+                assertNotEquals(previous.commit(), current.commit());
+                assertEquals(Set.of(a.toString(), b.toString(), c.toString()),
+                        detector.changedSince(previous, current));
+            }
+        }
+    }
+
+    /**
+     * Tests that an unknown baseline commit cannot be compared.
+     */
+    @Test
+    void testChangedSince_UnknownCommit() throws IOException, GitAPIException {
+        try (Git git = Git.init().setDirectory(tempDir.toFile()).call()) {
+            // Given
+            var srcRoot = Files.createDirectories(tempDir.resolve("src/main/java/p"));
+            Files.writeString(srcRoot.resolve("A.java"), "package p;\nclass A {}\n");
+            commit(git, "first");
+            var unknown = new GitBaseline("0123456789012345678901234567890123456789", Set.of());
+
+            // When / Then
+            try (var detector = GitChangeDetector.open(tempDir.resolve("src/main/java"))) {
+                assertNull(detector.changedSince(unknown, detector.snapshot()));
+            }
+        }
+    }
+
+    private static void commit(final Git git, final String message) throws GitAPIException {
+        git.add().addFilepattern(".").call();
+        git.add().addFilepattern(".").setUpdate(true).call();
+        git.commit().setMessage(message).setAuthor("Test", "test@example.com")
+                .setCommitter("Test", "test@example.com").setSign(false).call();
+    }
+}
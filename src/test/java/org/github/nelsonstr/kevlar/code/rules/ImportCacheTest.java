@@ -0,0 +1,113 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ImportCache}.
+ * <p>
+ * These tests write a cache, read it back and check when an entry is considered
+ * still valid for a file on disk.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see ImportCache
+ */
+class ImportCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that a saved cache is read back with the same entries.
+     */
+    @Test
+    void testSaveAndLoad_RoundTrip() throws IOException {
+        // Given
+        var file = Files.writeString(tempDir.resolve("A.java"), "package p;\nimport q.*;\nclass A {}\n");
+        var source = scan(file);
+        var cacheFile = tempDir.resolve("cache/import-cache.bin");
+
+        // When
+        ImportCache.save(cacheFile, List.of(source));
+        var cache = ImportCache.load(cacheFile, new NameInterner());
+
+        // Then
+        assertEquals(1, cache.size());
+        assertEquals(source, cache.lookup(file, source.size(), source.lastModified()));
+    }
+
+    /**
+     * Tests that a touched but unchanged file is still served from the cache.
+     */
+    @Test
+    void testLookup_UsesContentHashWhenOnlyTimestampChanged() throws IOException {
+        // Given
+        var file = Files.writeString(tempDir.resolve("A.java"), "package p;\nclass A {}\n");
+        var source = scan(file);
+        var cacheFile = tempDir.resolve("import-cache.bin");
+        ImportCache.save(cacheFile, List.of(source));
+        var cache = ImportCache.load(cacheFile, new NameInterner());
+
+        // When / Then: same size and content, other timestamp
+        var hit = cache.lookup(file, source.size(), source.lastModified() + 1000);
+        assertNotNull(hit);
+        assertEquals(source.lastModified() + 1000, hit.lastModified());
+        assertTrue(cache.isStale(0, 1));
+
+        // When / Then: same size, different content
+        Files.writeString(file, "package q;\nclass A {}\n");
+        assertNull(cache.lookup(file, source.size(), source.lastModified() + 2000));
+    }
+
+    /**
+     * Tests that the content hash comes from the bytes the lexer read, and that a
+     * large file whose body was skipped is read again when touched.
+     */
+    @Test
+    void testScan_HashesOnlyFullyReadFiles() throws IOException {
+        // Given: a small file, and one whose body is larger than a read buffer
+        var small = Files.writeString(tempDir.resolve("A.java"), "package p;\nclass A {}\n");
+        var large = Files.writeString(tempDir.resolve("B.java"),
+                "package p;\nclass B {\n" + "    // filler\n".repeat(10_000) + "}\n");
+
+        // When
+        var smallSource = scan(small);
+        var largeSource = scan(large);
+
+        // Then
+        assertEquals(ImportCache.contentHash(small), smallSource.contentHash());
+        assertFalse(largeSource.isHashed());
+        var cacheFile = tempDir.resolve("import-cache.bin");
+        ImportCache.save(cacheFile, List.of(largeSource));
+        var cache = ImportCache.load(cacheFile, new NameInterner());
+        assertNotNull(cache.lookup(large, largeSource.size(), largeSource.lastModified()));
+        assertNull(cache.lookup(large, largeSource.size(), largeSource.lastModified() + 1000));
+    }
+
+    /**
+     * Tests that an unreadable cache file is treated as empty.
+     */
+    @Test
+    void testLoad_CorruptFileIsEmpty() throws IOException {
+        // Given
+        var cacheFile = Files.write(tempDir.resolve("import-cache.bin"), new byte[] {1, 2, 3});
+
+        // When / Then
+        assertEquals(0, ImportCache.load(cacheFile, new NameInterner()).size());
+        assertEquals(0, ImportCache.load(tempDir.resolve("missing.bin"), new NameInterner()).size());
+    }
+
+    private static SourceFile scan(final Path file) throws IOException {
+        return new SourceScanner(1, ImportCache.empty(), new NameInterner()).scan(List.of(file)).get(0);
+    }
+}
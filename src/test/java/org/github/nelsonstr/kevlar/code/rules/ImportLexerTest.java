@@ -0,0 +1,212 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ImportLexer}.
+ * <p>
+ * Each test feeds a small compilation unit to the lexer and checks the package and
+ * import declarations it reports. The interesting cases are the ones a line-based
+ * scan gets wrong: commented-out imports, imports inside literals and content after
+ * the first type declaration.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see ImportLexer
+ */
+class ImportLexerTest {
+
+    /**
+     * Tests that package, regular, static and on-demand imports are recognised.
+     */
+    @Test
+    void testRead_RecognisesAllImportForms() throws IOException {
+        // Given
+        var source = """
+                package com.acme.app;
+
+                import java.util.List;
+                import static java.util.Objects.requireNonNull;
+                import com.acme.util.*;
+
+                public class App {
+                }
+                """;
+
+        // When
+        var header = read(source);
+
+        // Then
+        assertEquals("com.acme.app", header.packageName());
+        assertEquals(List.of(
+                new ImportDeclaration("java.util.List", false, false),
+                new ImportDeclaration("java.util.Objects.requireNonNull", true, false),
+                new ImportDeclaration("com.acme.util", false, true)), header.imports());
+    }
+
+    /**
+     * Tests that imports inside comments are ignored.
+     */
+    @Test
+    void testRead_IgnoresCommentedImports() throws IOException {
+        // Given
+        var source = """
+                package com.acme.app;
+                /*
+                import com.acme.hidden.Block;
+                */
+                // import com.acme.hidden.Line;
+                import /* inline */ com.acme.real . Visible ; // trailing
+                class App {}
+                """;
+
+        // When
+        var header = read(source);
+
+        // Then
+        assertEquals(List.of(new ImportDeclaration("com.acme.real.Visible", false, false)), header.imports());
+    }
+
+    /**
+     * Tests that reading stops at the first type declaration.
+     */
+    @Test
+    void testRead_StopsAtFirstTypeDeclaration() throws IOException {
+        // Given: an "import" that only appears inside a text block in the body
+        var source = "package com.acme.app;\n"
+                + "import com.acme.a.A;\n"
+                + "@SuppressWarnings(value = \"import com.acme.fake.Annotation;\")\n"
+                + "public final class App {\n"
+                + "    String s = \"\"\"\n"
+                + "        import com.acme.fake.TextBlock;\n"
+                + "        \"\"\";\n"
+                + "}\n"
+                + "import com.acme.fake.AfterBody;\n";
+
+        // When
+        var header = read(source);
+
+        // Then
+        assertEquals(List.of(new ImportDeclaration("com.acme.a.A", false, false)), header.imports());
+    }
+
+    /**
+     * Tests that annotation types, records and enums end the header as well.
+     */
+    @Test
+    void testRead_StopsAtAnnotationRecordAndEnum() throws IOException {
+        for (var declaration : List.of("@interface Marker {}", "record Point(int x) {}", "enum Kind { A }")) {
+            // Given
+            var source = "package p;\nimport q.Q;\n" + declaration + "\nimport r.R;\n";
+
+            // When
+            var header = read(source);
+
+            // Then
+            assertEquals(List.of(new ImportDeclaration("q.Q", false, false)), header.imports(), declaration);
+        }
+    }
+
+    /**
+     * Tests that interfaces, annotations and abstract classes are abstract types.
+     */
+    @Test
+    void testRead_DetectsAbstractTypes() throws IOException {
+        for (var declaration : List.of("public interface I {}", "@interface Marker {}",
+                "@Deprecated(since = \"1\") public abstract class A {}", "sealed abstract class S permits T {}")) {
+            assertTrue(read("package p;\nimport q.Q;\n" + declaration).abstractType(), declaration);
+        }
+        for (var declaration : List.of("public final class C {}", "record Point(int x) {}", "enum Kind { A }",
+                "class C { abstract void m(); }")) {
+            assertFalse(read("package p;\n" + declaration).abstractType(), declaration);
+        }
+    }
+
+    /**
+     * Tests that a file in the default package has no package name.
+     */
+    @Test
+    void testRead_DefaultPackage() throws IOException {
+        // When
+        var header = read("import a.B;\nclass C {}\n");
+
+        // Then
+        assertNull(header.packageName());
+        assertEquals(1, header.imports().size());
+    }
+
+    /**
+     * Tests that invalid UTF-8 does not make the file unreadable.
+     */
+    @Test
+    void testRead_ToleratesMalformedEncoding() throws IOException {
+        // Given: a Latin-1 "ç" (0xE7) inside a comment and inside a package name
+        var bytes = "// coment\u00e7rio\npackage com.acme.servi\u00e7o;\nimport a.B;\nclass C {}\n"
+                .getBytes(StandardCharsets.ISO_8859_1);
+
+        // When
+        var header = ImportLexer.read(ByteBuffer.wrap(bytes), new NameInterner());
+
+        // Then
+        assertEquals("com.acme.servi\u00e7o", header.packageName());
+        assertEquals(List.of(new ImportDeclaration("a.B", false, false)), header.imports());
+    }
+
+    /**
+     * Tests that repeated names share the same String instance.
+     */
+    @Test
+    void testRead_InternsRepeatedNames() throws IOException {
+        // Given
+        var interner = new NameInterner();
+        var source = "package p;\nimport java.util.List;\nclass C {}\n".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        var first = ImportLexer.read(ByteBuffer.wrap(source), interner);
+        var second = ImportLexer.read(ByteBuffer.wrap(source), interner);
+
+        // Then
+        assertSame(first.imports().get(0).name(), second.imports().get(0).name());
+        assertSame(first.imports().get(0).qualifier(), second.imports().get(0).qualifier());
+        assertEquals("java.util", first.imports().get(0).qualifier());
+    }
+
+    /**
+     * Tests reading through the file channel, both pooled and memory-mapped.
+     */
+    @Test
+    void testRead_FromPooledAndMappedFiles(@TempDir final Path tempDir) throws IOException {
+        // Given: a small file and one above the mapping threshold
+        var header = "package p;\nimport q.Q;\npublic class C {\n";
+        var small = Files.writeString(tempDir.resolve("Small.java"), header + "}\n");
+        var body = new StringBuilder(header);
+        while (body.length() <= ImportLexer.MAP_THRESHOLD) {
+            body.append("    // filler line to push the file over the threshold\n");
+        }
+        var large = Files.writeString(tempDir.resolve("Large.java"), body.append("}\n"));
+
+        // When / Then
+        var interner = new NameInterner();
+        for (var file : List.of(small, large)) {
+            var result = ImportLexer.read(file, interner);
+            assertEquals("p", result.packageName());
+            assertEquals(List.of(new ImportDeclaration("q.Q", false, false)), result.imports());
+        }
+    }
+
+    private static SourceHeader read(final String source) throws IOException {
+        return ImportLexer.read(ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)), new NameInterner());
+    }
+}
@@ -0,0 +1,140 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link MackerRuleset}.
+ * <p>
+ * These tests evaluate the rulesets bundled under {@code macker/} against small
+ * type graphs and check the violations reported for each edge.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see MackerRuleset
+ */
+class MackerRulesetTest {
+
+    /**
+     * Tests the bundled layering rules, including nested allows and external packages.
+     */
+    @Test
+    void testCheck_LayeringRules() throws IOException {
+        // Given
+        var builder = TypeGraph.builder();
+        builder.addEdge("com.acme.model.Order", "com.acme.model", "com.acme.persistence.OrderDao",
+                "com.acme.persistence");
+        builder.addEdge("com.acme.service.Billing", "com.acme.service", "com.acme.persistence.OrderDao",
+                "com.acme.persistence");
+        builder.addEdge("com.acme.persistence.OrderDao", "com.acme.persistence", "com.acme.model.Order",
+                "com.acme.model");
+        builder.addExternalEdge("com.acme.persistence.OrderDao", "com.acme.persistence", "java.sql");
+        builder.addExternalEdge("com.acme.service.Billing", "com.acme.service", "java.sql");
+        var warnings = new ArrayList<String>();
+
+        // When
+        var violations = bundled("macker/layering.xml").check(builder.build(), Map.of("base", "com.acme"),
+                warnings::add);
+
+        // Then
+        assertEquals(List.of(
+                new MackerRuleset.Violation("Layering rules", "Only the model can talk to the persistence layer",
+                        true, "com.acme.service.Billing", "com.acme.persistence.OrderDao"),
+                new MackerRuleset.Violation("Layering rules", "Persistence belongs in the persistence layer",
+                        true, "com.acme.service.Billing", "java.sql.*"),
+                new MackerRuleset.Violation("Layering rules", "The persistence layer can't access the model",
+                        true, "com.acme.persistence.OrderDao", "com.acme.model.Order")),
+                violations.stream().sorted((a, b) -> a.message().compareTo(b.message())).toList());
+        assertEquals(List.of(), warnings);
+    }
+
+    /**
+     * Tests that the bundled modularity rules are expanded once per captured module.
+     */
+    @Test
+    void testCheck_ForeachModules() throws IOException {
+        // Given
+        var builder = TypeGraph.builder();
+        builder.addEdge("org.github.nelsonstr.billing.Api", "org.github.nelsonstr.billing",
+                "org.github.nelsonstr.billing.impl.Service", "org.github.nelsonstr.billing.impl");
+        builder.addEdge("org.github.nelsonstr.billing.BillingFactory", "org.github.nelsonstr.billing",
+                "org.github.nelsonstr.billing.impl.Service", "org.github.nelsonstr.billing.impl");
+        builder.addEdge("org.github.nelsonstr.orders.impl.Repo", "org.github.nelsonstr.orders.impl",
+                "org.github.nelsonstr.orders.impl.Entity", "org.github.nelsonstr.orders.impl");
+
+        // When
+        var violations = bundled("macker/modularity.xml").check(builder.build(), Map.of(), warning -> { });
+
+        // Then
+        assertEquals(List.of(new MackerRuleset.Violation("Modularity rules",
+                "org.github.nelsonstr.billing.Api must access the billing module through its API", true,
+                "org.github.nelsonstr.billing.Api", "org.github.nelsonstr.billing.impl.Service")), violations);
+    }
+
+    /**
+     * Tests that rules using filters are skipped with a warning.
+     */
+    @Test
+    void testCheck_SkipsFilterRules() throws IOException {
+        // Given
+        var builder = TypeGraph.builder();
+        builder.addEdge("org.github.nelsonstr.a.A", "org.github.nelsonstr.a", "org.github.nelsonstr.b.B",
+                "org.github.nelsonstr.b");
+        var warnings = new ArrayList<String>();
+
+        // When
+        var violations = bundled("macker/conventions.xml").check(builder.build(), Map.of(), warnings::add);
+
+        // Then
+        assertTrue(violations.isEmpty());
+        assertEquals(4, warnings.size());
+        assertTrue(warnings.get(0).contains("filter 'primary-class'"), warnings::toString);
+    }
+
+    /**
+     * Tests severities and undefined patterns.
+     */
+    @Test
+    void testCheck_SeverityAndUnknownPattern() throws IOException {
+        // Given
+        var graph = TypeGraph.builder();
+        graph.addEdge("a.A", "a", "b.B", "b");
+        var warning = parse("""
+                <macker><ruleset name="r">
+                  <access-rule severity="warning"><deny><from class="a.*"/><to class="b.*"/></deny></access-rule>
+                </ruleset></macker>
+                """);
+        var unknown = parse("""
+                <macker><ruleset name="r">
+                  <access-rule><deny><to pattern="missing"/></deny></access-rule>
+                </ruleset></macker>
+                """);
+
+        // When / Then
+        assertEquals(List.of(new MackerRuleset.Violation("r", "a.A may not access b.B", false, "a.A", "b.B")),
+                warning.check(graph.build(), Map.of(), w -> { }));
+        assertThrows(IllegalArgumentException.class, () -> unknown.check(graph.build(), Map.of(), w -> { }));
+        assertThrows(IOException.class, () -> parse("<rules/>"));
+    }
+
+    private static MackerRuleset bundled(final String resource) throws IOException {
+        try (InputStream in = MackerRulesetTest.class.getClassLoader().getResourceAsStream(resource)) {
+            return MackerRuleset.parse(in, resource);
+        }
+    }
+
+    private static MackerRuleset parse(final String xml) throws IOException {
+        return MackerRuleset.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), "test");
+    }
+}
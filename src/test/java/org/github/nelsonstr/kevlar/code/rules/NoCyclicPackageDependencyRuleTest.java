@@ -0,0 +1,730 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.apache.maven.enforcer.rule.api.EnforcerRuleException;
+import org.apache.maven.enforcer.rule.api.EnforcerRuleHelper;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import javax.tools.ToolProvider;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end tests for the NoCyclicPackageDependencyRule enforcer rule.
+ * <p>
+ * These tests write small source trees into a temporary project directory and run
+ * the rule against them. Like {@link EnforcerRuleSimpleTest}, they avoid Mockito:
+ * the {@link EnforcerRuleHelper} is a plain {@link Proxy} that only answers the
+ * calls the rule actually makes.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see NoCyclicPackageDependencyRule
+ */
+@SuppressWarnings("deprecation")
+class NoCyclicPackageDependencyRuleTest {
+
+    /**
+     * Temporary project directory, recreated for each test method.
+     */
+    @TempDir
+    Path tempDir;
+
+    private ScanRuleFixture fixture;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new ScanRuleFixture(tempDir);
+    }
+
+    /**
+     * Tests that a simple three-package cycle is reported.
+     */
+    @Test
+    void testExecute_ReportsCycle() throws IOException {
+        // Given: a → b → c → a
+        fixture.writeSource("com.acme.a", "A", "com.acme.b.B");
+        fixture.writeSource("com.acme.b", "B", "com.acme.c.C");
+        fixture.writeSource("com.acme.c", "C", "com.acme.a.A");
+        var rule = new NoCyclicPackageDependencyRule();
+
+        // When / Then: the build fails with the cycle in the message
+        var ex = assertThrows(EnforcerRuleException.class, () -> rule.execute(helper()));
+        assertTrue(ex.getMessage().contains("com.acme.a → com.acme.b → com.acme.c → com.acme.a"),
+                ex.getMessage());
+    }
+
+    /**
+     * Tests that an acyclic tree passes.
+     */
+    @Test
+    void testExecute_PassesWithoutCycle() throws IOException {
+        // Given: a → b → c
+        fixture.writeSource("com.acme.a", "A", "com.acme.b.B");
+        fixture.writeSource("com.acme.b", "B", "com.acme.c.C");
+        fixture.writeSource("com.acme.c", "C");
+        var rule = new NoCyclicPackageDependencyRule();
+
+        // When / Then: no exception
+        assertDoesNotThrow(() -> rule.execute(helper()));
+    }
+
+    /**
+     * Tests that wildcard imports of packages and nested types reach the graph.
+     */
+    @Test
+    void testExecute_ResolvesWildcardImports() throws IOException {
+        // Given: a → b via a package wildcard, b → a via a nested-type wildcard
+        fixture.writeSource("com.acme.a", "Outer", "com.acme.b.*");
+        fixture.writeSource("com.acme.b", "B", "com.acme.a.Outer.*");
+        var rule = new NoCyclicPackageDependencyRule();
+
+        // When / Then
+        var ex = assertThrows(EnforcerRuleException.class, () -> rule.execute(helper()));
+        assertTrue(ex.getMessage().contains("com.acme.a → com.acme.b → com.acme.a"), ex.getMessage());
+        assertFalse(ex.getMessage().contains("com.acme.a.Outer"), ex.getMessage());
+    }
+
+    /**
+     * Tests that static and nested-type imports resolve to the owning package.
+     */
+    @Test
+    void testExecute_ResolvesStaticAndNestedImports() throws IOException {
+        // Given: a → b via a static import, b → a via a nested type
+        fixture.writeSource("com.acme.a", "Outer", "static com.acme.b.Util.max");
+        fixture.writeSource("com.acme.b", "Util", "com.acme.a.Outer.Inner");
+        var rule = new NoCyclicPackageDependencyRule();
+
+        // When / Then: the cycle is between the real packages only
+        var ex = assertThrows(EnforcerRuleException.class, () -> rule.execute(helper()));
+        assertTrue(ex.getMessage().contains("com.acme.a → com.acme.b → com.acme.a"), ex.getMessage());
+        assertFalse(ex.getMessage().contains("Outer"), ex.getMessage());
+    }
+
+    /**
+     * Tests that the same scan is checked at type and package-prefix granularity.
+     */
+    @Test
+    void testExecute_ChecksConfiguredGranularities() throws IOException {
+        // Given: billing.api → orders → billing.impl, acyclic between packages
+        fixture.writeSource("com.acme.billing.api", "Api", "com.acme.orders.Order");
+        fixture.writeSource("com.acme.orders", "Order", "com.acme.billing.impl.Impl");
+        fixture.writeSource("com.acme.billing.impl", "Impl");
+        var packages = new NoCyclicPackageDependencyRule();
+        var prefixes = new NoCyclicPackageDependencyRule();
+        prefixes.setGranularities(List.of("type", "package", "3"));
+
+        // When / Then: only the prefix level has a cycle
+        assertDoesNotThrow(() -> packages.execute(helper()));
+        var ex = assertThrows(EnforcerRuleException.class, () -> prefixes.execute(helper()));
+        assertTrue(ex.getMessage().contains("3-segment package prefix level"), ex.getMessage());
+        assertTrue(ex.getMessage().contains("com.acme.billing → com.acme.orders → com.acme.billing"),
+                ex.getMessage());
+        assertFalse(ex.getMessage().contains("at type level"), ex.getMessage());
+
+        // When / Then: an unknown granularity is a configuration error
+        prefixes.setGranularities(List.of("module"));
+        assertThrows(EnforcerRuleException.class, () -> prefixes.execute(helper()));
+    }
+
+    /**
+     * Tests that the package metrics are written from the same scan and that the
+     * thresholds fail the build.
+     */
+    @Test
+    void testExecute_WritesPackageMetrics() throws IOException {
+        // Given: an abstract api used by a concrete impl
+        fixture.writeSource("com.acme.impl", "Impl", "com.acme.api.Api", "java.util.List");
+        var api = tempDir.resolve("src/main/java/com/acme/api/Api.java");
+        Files.createDirectories(api.getParent());
+        Files.writeString(api, "package com.acme.api;\n\npublic interface Api {\n}\n");
+        var rule = new NoCyclicPackageDependencyRule();
+        rule.setMetrics(true);
+
+        // When
+        assertDoesNotThrow(() -> rule.execute(helper()));
+
+        // Then
+        assertEquals(List.of("package,types,abstract,concrete,ca,ce,a,i,d",
+                "com.acme.api,1,1,0,1,0,1.000,0.000,0.000",
+                "com.acme.impl,1,0,1,0,2,0.000,1.000,0.000"),
+                Files.readAllLines(tempDir.resolve("target/kevlar/package-metrics.csv")));
+
+        // When / Then: impl depends on more packages than allowed
+        rule.setMaxEfferentCoupling(1);
+        var ex = assertThrows(EnforcerRuleException.class, () -> rule.execute(helper()));
+        assertTrue(ex.getMessage().contains("com.acme.impl: efferent coupling 2 > 1"), ex.getMessage());
+        assertFalse(ex.getMessage().contains("com.acme.api:"), ex.getMessage());
+    }
+
+    /**
+     * Tests that each tangle comes with the cheapest dependencies to cut and the
+     * files that produce them.
+     */
+    @Test
+    void testExecute_SuggestsCuts() throws IOException {
+        // Given: a → b from two files, b → a from one
+        fixture.writeSource("com.acme.a", "A", "com.acme.b.B");
+        fixture.writeSource("com.acme.a", "A2", "com.acme.b.B");
+        fixture.writeSource("com.acme.b", "B", "com.acme.a.A");
+        var rule = new NoCyclicPackageDependencyRule();
+
+        // When
+        var ex = assertThrows(EnforcerRuleException.class, () -> rule.execute(helper()));
+
+        // Then
+        assertTrue(ex.getMessage().contains("  Suggested cuts (1 dependencies, 1 imports):\n"
+                + "    com.acme.b → com.acme.a (1 imports): src/main/java/com/acme/b/B.java\n"), ex.getMessage());
+    }
+
+    /**
+     * Tests that access rulesets from the project and from the classpath are
+     * checked in the same scan as the cycles.
+     */
+    @Test
+    void testExecute_ChecksAccessRules() throws IOException {
+        // Given: the service reaches into persistence, and a project ruleset bans java.util
+        fixture.writeSource("com.acme.service", "Billing", "com.acme.persistence.OrderDao", "java.util.List");
+        fixture.writeSource("com.acme.persistence", "OrderDao");
+        Files.writeString(tempDir.resolve("rules.xml"), """
+                <macker><ruleset name="No collections">
+                  <access-rule><deny><to class="java.util.**"/></deny></access-rule>
+                </ruleset></macker>
+                """);
+        var rule = new NoCyclicPackageDependencyRule();
+        rule.setAccessRules(List.of("macker/layering.xml", "rules.xml"));
+        rule.setAccessRuleVariables(Map.of("base", "com.acme"));
+
+        // When
+        var ex = assertThrows(EnforcerRuleException.class, () -> rule.execute(helper()));
+
+        // Then
+        assertTrue(ex.getMessage().contains("❌ Access rule violations:"), ex.getMessage());
+        assertTrue(ex.getMessage().contains("[Layering rules] Only the model can talk to the persistence layer: "
+                + "com.acme.service.Billing → com.acme.persistence.OrderDao"), ex.getMessage());
+        assertTrue(ex.getMessage().contains("[No collections]"), ex.getMessage());
+        assertFalse(ex.getMessage().contains("cycle"), ex.getMessage());
+
+        // When / Then: a missing ruleset is a configuration error
+        rule.setAccessRules(List.of("missing.xml"));
+        ex = assertThrows(EnforcerRuleException.class, () -> rule.execute(helper()));
+        assertTrue(ex.getMessage().contains("missing.xml"), ex.getMessage());
+    }
+
+    /**
+     * Tests that forbidden dependencies are reported together with cycles from the
+     * same scan.
+     */
+    @Test
+    void testExecute_ChecksForbiddenDependencies() throws IOException {
+        // Given: a cycle between domain and web, and a domain type using JDBC
+        fixture.writeSource("com.acme.domain", "Order", "com.acme.web.Controller", "java.sql.Connection");
+        fixture.writeSource("com.acme.web", "Controller", "com.acme.domain.Order");
+        var rule = new NoCyclicPackageDependencyRule();
+        rule.setForbiddenDependencies(List.of("..domain.. -> java.sql, ..web.."));
+        rule.setAllowedDependencies(List.of("com.acme.domain -> ..web.."));
+
+        // When
+        var ex = assertThrows(EnforcerRuleException.class, () -> rule.execute(helper()));
+
+        // Then
+        assertTrue(ex.getMessage().contains("com.acme.domain → com.acme.web → com.acme.domain"), ex.getMessage());
+        assertTrue(ex.getMessage().contains("❌ Forbidden dependencies:\n  [..domain.. -> java.sql] "
+                + "com.acme.domain.Order → java.sql (src/main/java/com/acme/domain/Order.java"), ex.getMessage());
+        assertFalse(ex.getMessage().contains("[..domain.. -> ..web..]"), ex.getMessage());
+
+        // When / Then: malformed constraints are configuration errors
+        rule.setForbiddenDependencies(List.of("..domain.. -> java..sql."));
+        ex = assertThrows(EnforcerRuleException.class, () -> rule.execute(helper()));
+        assertTrue(ex.getMessage().contains("Invalid dependency constraint"), ex.getMessage());
+    }
+
+    /**
+     * Tests that every compile source root is scanned once and that packages come
+     * from the declarations, not the directories.
+     */
+    @Test
+    void testExecute_ScansAllCompileSourceRoots() throws IOException {
+        // Given: a in src/main/java, b in a generated root under a flat directory
+        fixture.writeSource("com.acme.a", "A", "com.acme.b.B");
+        var generated = Files.createDirectories(tempDir.resolve("target/generated-sources/flat"));
+        Files.writeString(generated.resolve("B.java"), "package com.acme.b;\n\nimport com.acme.a.A;\n\nclass B {}\n");
+        var project = new MavenProject();
+        project.setFile(tempDir.resolve("pom.xml").toFile());
+        project.addCompileSourceRoot(tempDir.resolve("src/main/java").toString());
+        project.addCompileSourceRoot("target/generated-sources/flat");
+        project.addCompileSourceRoot("target/generated-sources/../generated-sources/flat");
+        var rule = new NoCyclicPackageDependencyRule();
+
+        // When / Then: the cycle spans both roots and is reported once
+        var ex = assertThrows(EnforcerRuleException.class, () -> rule.execute(helper(project, null)));
+        assertTrue(ex.getMessage().contains("com.acme.a → com.acme.b → com.acme.a"), ex.getMessage());
+        assertTrue(ex.getMessage().contains("Tangle 1 (2 packages)"), ex.getMessage());
+        assertFalse(ex.getMessage().contains("Tangle 2"), ex.getMessage());
+    }
+
+    /**
+     * Tests that the test layer is reported on its own and that main-to-test
+     * references are flagged.
+     */
+    @Test
+    void testExecute_SeparateTestLayer() throws IOException {
+        // Given: clean main sources, except for one reference to a test fixture
+        fixture.writeSource("com.acme.a", "A", "com.acme.fixture.Fixture");
+        fixture.writeSource("com.acme.b", "B", "com.acme.a.A");
+        fixture.writeTestSource("com.acme.fixture", "Fixture", "com.acme.a.A", "com.acme.support.Helper");
+        fixture.writeTestSource("com.acme.support", "Helper", "com.acme.fixture.Fixture");
+        var rule = new NoCyclicPackageDependencyRule();
+        rule.setTestSources("separate");
+
+        // When
+        var message = assertThrows(EnforcerRuleException.class, () -> rule.execute(helper())).getMessage();
+
+        // Then: the main graph stays clean, the test cycle and the leak are reported
+        assertFalse(message.startsWith("❌ Cyclic dependencies found:"), message);
+        assertTrue(message.contains("❌ Cyclic dependencies found in test sources:\nTangle 1 (2 packages): "
+                + "com.acme.fixture, com.acme.support"), message);
+        assertTrue(message.contains("❌ Main sources depend on test sources:\n"
+                + "  com.acme.a.A → com.acme.fixture.Fixture"), message);
+    }
+
+    /**
+     * Tests that the combined mode finds cycles that pass through both layers.
+     */
+    @Test
+    void testExecute_CombinedTestLayer() throws IOException {
+        // Given: main a → test fixture → main a
+        fixture.writeSource("com.acme.a", "A", "com.acme.fixture.Fixture");
+        fixture.writeTestSource("com.acme.fixture", "Fixture", "com.acme.a.A");
+
+        // When: only the main layer is analysed
+        assertDoesNotThrow(() -> new NoCyclicPackageDependencyRule().execute(helper()));
+
+        // Then: the combined graph closes the cycle
+        var rule = new NoCyclicPackageDependencyRule();
+        rule.setTestSources("combined");
+        var message = assertThrows(EnforcerRuleException.class, () -> rule.execute(helper())).getMessage();
+        assertTrue(message.contains("com.acme.a → com.acme.fixture → com.acme.a"), message);
+        assertTrue(message.contains("Main sources depend on test sources"), message);
+    }
+
+    /**
+     * Tests that parallel and sequential scans report identical cycles.
+     */
+    @Test
+    void testExecute_ParallelScanIsDeterministic() throws IOException {
+        // Given: several independent cycles spread over many files
+        for (int i = 0; i < 20; i++) {
+            fixture.writeSource("com.acme.p" + i + ".x", "X" + i, "com.acme.p" + i + ".y.Y" + i);
+            fixture.writeSource("com.acme.p" + i + ".y", "Y" + i, "com.acme.p" + i + ".x.X" + i);
+        }
+
+        // When: run sequentially and with several threads
+        var sequential = new NoCyclicPackageDependencyRule();
+        sequential.setParallelism(1);
+        var expected = assertThrows(EnforcerRuleException.class, () -> sequential.execute(helper())).getMessage();
+
+        // Then: every parallel run matches the sequential output exactly
+        for (int run = 0; run < 5; run++) {
+            var parallel = new NoCyclicPackageDependencyRule();
+            parallel.setParallelism(8);
+            var actual = assertThrows(EnforcerRuleException.class, () -> parallel.execute(helper())).getMessage();
+            assertEquals(expected, actual);
+        }
+    }
+
+    /**
+     * Tests that the incremental cache picks up changed and deleted files.
+     */
+    @Test
+    void testExecute_IncrementalCacheTracksChanges() throws IOException {
+        // Given: an acyclic tree, analysed once to populate the cache
+        fixture.writeSource("com.acme.a", "A", "com.acme.b.B");
+        fixture.writeSource("com.acme.b", "B");
+        assertDoesNotThrow(() -> new NoCyclicPackageDependencyRule().execute(helper()));
+        assertTrue(Files.exists(tempDir.resolve("target/kevlar/import-cache.bin")));
+
+        // When: B starts importing A
+        fixture.writeSource("com.acme.b", "B", "com.acme.a.A");
+
+        // Then: the new cycle is reported
+        assertThrows(EnforcerRuleException.class, () -> new NoCyclicPackageDependencyRule().execute(helper()));
+
+        // When: B is deleted
+        Files.delete(tempDir.resolve("src/main/java/com/acme/b/B.java"));
+
+        // Then: the cycle is gone
+        assertDoesNotThrow(() -> new NoCyclicPackageDependencyRule().execute(helper()));
+    }
+
+    /**
+     * Tests that the Git-aware mode picks up committed and uncommitted changes.
+     */
+    @Test
+    void testExecute_GitIncrementalTracksChanges() throws IOException, GitAPIException {
+        try (Git git = Git.init().setDirectory(tempDir.toFile()).call()) {
+            // Given: an acyclic tree, committed and analysed once
+            fixture.writeSource("com.acme.a", "A", "com.acme.b.B");
+            fixture.writeSource("com.acme.b", "B");
+            fixture.writeSource("com.acme.c", "C");
+            commit(git);
+            assertDoesNotThrow(() -> gitRule().execute(helper()));
+
+            // When / Then: a committed change closes a cycle
+            fixture.writeSource("com.acme.b", "B", "com.acme.a.A");
+            commit(git);
+            assertThrows(EnforcerRuleException.class, () -> gitRule().execute(helper()));
+
+            // When / Then: the cycle is broken in the working tree only
+            fixture.writeSource("com.acme.b", "B", "com.acme.c.C");
+            assertDoesNotThrow(() -> gitRule().execute(helper()));
+
+            // When / Then: the edit is reverted without committing
+            fixture.writeSource("com.acme.b", "B", "com.acme.a.A");
+            assertThrows(EnforcerRuleException.class, () -> gitRule().execute(helper()));
+        }
+    }
+
+    /**
+     * Tests that the bytecode mode sees references that have no import.
+     */
+    @Test
+    void testExecute_BytecodeModeSeesQualifiedReferences() throws IOException {
+        // Given: a → b through an import, b → a through a fully qualified name only
+        fixture.writeSource("com.acme.a", "A");
+        fixture.writeSource("com.acme.b", "B");
+        Files.writeString(tempDir.resolve("src/main/java/com/acme/a/A.java"),
+                "package com.acme.a;\n\nimport com.acme.b.B;\n\npublic class A {\n    B b;\n}\n");
+        Files.writeString(tempDir.resolve("src/main/java/com/acme/b/B.java"),
+                "package com.acme.b;\n\npublic class B {\n    com.acme.a.A a;\n}\n");
+        compileSources();
+
+        // When / Then: the source mode misses the cycle
+        assertDoesNotThrow(() -> new NoCyclicPackageDependencyRule().execute(helper()));
+
+        // When / Then: the bytecode mode reports it
+        var rule = new NoCyclicPackageDependencyRule();
+        rule.setAnalysisMode("bytecode");
+        var ex = assertThrows(EnforcerRuleException.class, () -> rule.execute(helper()));
+        assertTrue(ex.getMessage().contains("com.acme.a → com.acme.b → com.acme.a"), ex.getMessage());
+    }
+
+    /**
+     * Tests that exclusions follow the declared package, not the directory the file
+     * sits in.
+     */
+    @Test
+    void testExecute_ExcludesByDeclaredPackage() throws IOException {
+        // Given: a → b → a, with A declared in com.acme.a but kept under legacy/
+        final Path dir = tempDir.resolve("src/main/java/legacy");
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("A.java"),
+                "package com.acme.a;\n\nimport com.acme.b.B;\n\npublic class A {\n}\n");
+        fixture.writeSource("com.acme.b", "B", "com.acme.a.A");
+        var rule = new NoCyclicPackageDependencyRule();
+        rule.setExcludePatterns(List.of("legacy", "legacy\\..*"));
+
+        // When / Then: the directory package is excluded, the declared one is not
+        var ex = assertThrows(EnforcerRuleException.class, () -> rule.execute(helper()));
+        assertTrue(ex.getMessage().contains("com.acme.a → com.acme.b → com.acme.a"), ex.getMessage());
+    }
+
+    /**
+     * Tests that a sources jar is analysed in place.
+     */
+    @Test
+    void testExecute_AnalysesSourcesArchive() throws IOException {
+        // Given: a → b → a, packed into a -sources.jar
+        fixture.writeSource("com.acme.a", "A", "com.acme.b.B");
+        fixture.writeSource("com.acme.b", "B", "com.acme.a.A");
+        final Path archive = zip(tempDir.resolve("src/main/java"), tempDir.resolve("lib-sources.jar"));
+        deleteTree(tempDir.resolve("src"));
+        var rule = new NoCyclicPackageDependencyRule();
+        rule.setArchives(List.of("lib-sources.jar"));
+
+        // When / Then
+        var ex = assertThrows(EnforcerRuleException.class, () -> rule.execute(helper()));
+        assertTrue(ex.getMessage().contains("com.acme.a → com.acme.b → com.acme.a"), ex.getMessage());
+        assertTrue(Files.exists(archive));
+    }
+
+    /**
+     * Tests that a binary jar is analysed in place in bytecode mode.
+     */
+    @Test
+    void testExecute_AnalysesBinaryArchive() throws IOException {
+        // Given: a → b → a, compiled and packed into a jar
+        fixture.writeSource("com.acme.a", "A");
+        fixture.writeSource("com.acme.b", "B");
+        Files.writeString(tempDir.resolve("src/main/java/com/acme/a/A.java"),
+                "package com.acme.a;\n\npublic class A {\n    com.acme.b.B b;\n}\n");
+        Files.writeString(tempDir.resolve("src/main/java/com/acme/b/B.java"),
+                "package com.acme.b;\n\npublic class B {\n    com.acme.a.A a;\n}\n");
+        compileSources();
+        zip(tempDir.resolve("target/classes"), tempDir.resolve("lib.jar"));
+        deleteTree(tempDir.resolve("target"));
+        var rule = new NoCyclicPackageDependencyRule();
+        rule.setAnalysisMode("bytecode");
+        rule.setArchives(List.of("lib.jar"));
+
+        // When / Then
+        var ex = assertThrows(EnforcerRuleException.class, () -> rule.execute(helper()));
+        assertTrue(ex.getMessage().contains("com.acme.a → com.acme.b → com.acme.a"), ex.getMessage());
+    }
+
+    /**
+     * Tests that the aggregate mode finds a cycle across modules and reports it only
+     * in the modules involved, computing the reactor graph once.
+     */
+    @Test
+    void testExecute_AggregateFindsCrossModuleCycles() throws Exception {
+        // Given: m1 (a) → m2 (b) → m1 (a), and an unrelated m3
+        var m1 = module("m1");
+        var m2 = module("m2");
+        var m3 = module("m3");
+        sources(m1).writeSource("com.acme.a", "A", "com.acme.b.B");
+        sources(m2).writeSource("com.acme.b", "B", "com.acme.a.A");
+        sources(m3).writeSource("com.acme.c", "C", "com.acme.a.A");
+        var session = new MavenSession(null, new DefaultRepositorySystemSession(),
+                new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult());
+        session.setProjects(List.of(m1, m2, m3));
+
+        // When: every module runs concurrently, as under -T
+        var executor = Executors.newFixedThreadPool(3);
+        try {
+            var results = new ArrayList<Future<String>>();
+            for (var module : List.of(m1, m2, m3)) {
+                results.add(executor.submit(() -> {
+                    var rule = new NoCyclicPackageDependencyRule();
+                    rule.setAggregate(true);
+                    try {
+                        rule.execute(helper(module, session));
+                        return null;
+                    } catch (EnforcerRuleException e) {
+                        return e.getMessage();
+                    }
+                }));
+            }
+
+            // Then: m1 and m2 fail with the cross-module cycle, m3 passes
+            for (int i = 0; i < 2; i++) {
+                var message = results.get(i).get();
+                assertNotNull(message);
+                assertTrue(message.contains("com.acme.a → com.acme.b → com.acme.a"), message);
+                assertTrue(message.contains("Modules: com.acme:m1, com.acme:m2"), message);
+            }
+            assertNull(results.get(2).get());
+        } finally {
+            executor.shutdown();
+        }
+
+        // Then: later executions reuse the session graph even if the sources change
+        sources(m2).writeSource("com.acme.b", "B");
+        var rule = new NoCyclicPackageDependencyRule();
+        rule.setAggregate(true);
+        assertThrows(EnforcerRuleException.class, () -> rule.execute(helper(m2, session)));
+        assertFalse(rule.isCacheable());
+    }
+
+    /**
+     * Tests that the aggregate mode keeps its caches in the executing module and
+     * only reads the caches of the other modules.
+     */
+    @Test
+    void testExecute_AggregateWritesOnlyOwnCaches() throws Exception {
+        // Given: m2 checked on its own first, so it has a cache; m3 has none
+        var m1 = module("m1");
+        var m2 = module("m2");
+        var m3 = module("m3");
+        sources(m1).writeSource("com.acme.a", "A", "com.acme.b.B");
+        sources(m2).writeSource("com.acme.b", "B");
+        sources(m3).writeSource("com.acme.c", "C", "com.acme.a.A");
+        assertDoesNotThrow(() -> new NoCyclicPackageDependencyRule().execute(helper(m2, null)));
+        var m2Cache = m2.getBasedir().toPath().resolve("target/kevlar/import-cache.bin");
+        var m2Bytes = Files.readAllBytes(m2Cache);
+        var session = new MavenSession(null, new DefaultRepositorySystemSession(),
+                new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult());
+        session.setProjects(List.of(m1, m2, m3));
+
+        // When: m1 runs the aggregate analysis
+        var rule = new NoCyclicPackageDependencyRule();
+        rule.setAggregate(true);
+        assertDoesNotThrow(() -> rule.execute(helper(m1, session)));
+
+        // Then: the caches are written under m1 only, keyed by module
+        var aggregate = m1.getBasedir().toPath().resolve("target/kevlar/aggregate");
+        assertTrue(Files.exists(aggregate.resolve("com.acme_m1-import-cache.bin")));
+        assertTrue(Files.exists(aggregate.resolve("com.acme_m3-import-cache.bin")));
+        assertArrayEquals(m2Bytes, Files.readAllBytes(m2Cache));
+        assertFalse(Files.exists(m2.getBasedir().toPath().resolve("target/kevlar/aggregate")));
+        assertFalse(Files.exists(m3.getBasedir().toPath().resolve("target")));
+    }
+
+    /**
+     * Tests that a result cached for one module is never reused for another module
+     * with the same configuration.
+     */
+    @Test
+    void testExecute_ResultNotReusedAcrossModules() throws IOException {
+        // Given: m1 is acyclic and m2 has a cycle, checked with identical configuration
+        var m1 = module("m1");
+        var m2 = module("m2");
+        sources(m1).writeSource("com.acme.a", "A", "com.acme.b.B");
+        sources(m1).writeSource("com.acme.b", "B");
+        sources(m2).writeSource("com.acme.c", "C", "com.acme.d.D");
+        sources(m2).writeSource("com.acme.d", "D", "com.acme.c.C");
+        var cache = new HashMap<String, NoCyclicPackageDependencyRule>();
+
+        // When: both modules go through the enforcer result cache, as in a reactor
+        assertDoesNotThrow(() -> enforce(new NoCyclicPackageDependencyRule(), helper(m1, null), cache));
+        var second = new NoCyclicPackageDependencyRule();
+
+        // Then: the second module is analysed and its cycle reported
+        var ex = assertThrows(EnforcerRuleException.class, () -> enforce(second, helper(m2, null), cache));
+        assertTrue(ex.getMessage().contains("com.acme.c → com.acme.d → com.acme.c"), ex.getMessage());
+        assertFalse(second.isResultValid(cache.values().iterator().next()));
+    }
+
+    /**
+     * Runs the rule the way the enforcer does: the result cache, which spans the
+     * reactor, is looked up before the rule executes.
+     */
+    private static void enforce(final NoCyclicPackageDependencyRule rule, final EnforcerRuleHelper helper,
+            final Map<String, NoCyclicPackageDependencyRule> cache) throws EnforcerRuleException {
+        final String key = rule.getClass().getName() + " " + rule.getCacheId();
+        if (rule.isCacheable()) {
+            final NoCyclicPackageDependencyRule cached = cache.get(key);
+            if (cached != null && rule.isResultValid(cached)) {
+                return;
+            }
+        }
+        rule.execute(helper);
+        cache.put(key, rule);
+    }
+
+    /**
+     * Packs the content of a directory into a zip archive.
+     */
+    private static Path zip(final Path directory, final Path archive) throws IOException {
+        try (FileSystem zip = FileSystems.newFileSystem(archive, Map.of("create", "true"));
+                Stream<Path> files = Files.walk(directory)) {
+            for (final Path file : files.filter(Files::isRegularFile).toList()) {
+                final Path entry = zip.getPath(directory.relativize(file).toString().replace('\\', '/'));
+                Files.createDirectories(entry.getParent());
+                Files.copy(file, entry);
+            }
+        }
+        return archive;
+    }
+
+    /**
+     * Deletes a directory tree.
+     */
+    private static void deleteTree(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (final Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Compiles the temporary sources into {@code target/classes}.
+     */
+    private void compileSources() throws IOException {
+        final Path classes = Files.createDirectories(tempDir.resolve("target/classes"));
+        final List<String> args = new ArrayList<>(List.of("-d", classes.toString()));
+        try (Stream<Path> files = Files.walk(tempDir.resolve("src/main/java"))) {
+            files.filter(path -> path.toString().endsWith(".java")).map(Path::toString).forEach(args::add);
+        }
+        assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null, args.toArray(String[]::new)));
+    }
+
+    /**
+     * Creates a rule with the Git-aware incremental mode enabled.
+     */
+    private static NoCyclicPackageDependencyRule gitRule() {
+        final NoCyclicPackageDependencyRule rule = new NoCyclicPackageDependencyRule();
+        rule.setGitIncremental(true);
+        return rule;
+    }
+
+    /**
+     * Commits every change in the working tree.
+     */
+    private static void commit(final Git git) throws GitAPIException {
+        git.add().addFilepattern("src").call();
+        git.commit().setMessage("change").setAuthor("Test", "test@example.com")
+                .setCommitter("Test", "test@example.com").setSign(false).call();
+    }
+
+    /**
+     * Creates a reactor module under the temporary directory.
+     */
+    private MavenProject module(final String artifactId) throws IOException {
+        final MavenProject project = new MavenProject();
+        project.setGroupId("com.acme");
+        project.setArtifactId(artifactId);
+        project.setFile(Files.createDirectories(tempDir.resolve(artifactId)).resolve("pom.xml").toFile());
+        return project;
+    }
+
+    /**
+     * Fixture that writes sources into the given module.
+     */
+    private static ScanRuleFixture sources(final MavenProject module) {
+        return new ScanRuleFixture(module.getBasedir().toPath());
+    }
+
+    /**
+     * Creates a helper whose {@code ${project}} points at the temporary directory.
+     */
+    private EnforcerRuleHelper helper() {
+        final MavenProject project = new MavenProject();
+        project.setFile(tempDir.resolve("pom.xml").toFile());
+        return helper(project, null);
+    }
+
+    /**
+     * Creates a helper for the given project and session.
+     */
+    private static EnforcerRuleHelper helper(final MavenProject project, final MavenSession session) {
+        final SystemStreamLog log = new SystemStreamLog();
+        return (EnforcerRuleHelper) Proxy.newProxyInstance(NoCyclicPackageDependencyRuleTest.class.getClassLoader(),
+                new Class<?>[] {EnforcerRuleHelper.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getLog" -> log;
+                    case "evaluate" -> switch ((String) args[0]) {
+                        case "${project}" -> project;
+                        case "${session}" -> session;
+                        default -> null;
+                    };
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,232 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.apache.maven.enforcer.rule.api.EnforcerRuleException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Enforcer 3.x {@link NoCyclicPackageDependency} rule.
+ * <p>
+ * The rule is built the way the container builds it, with the project and a
+ * shared {@link SourceModelCache} passed to its constructor. The project and the
+ * recording logger come from a {@link ScanRuleFixture}.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see NoCyclicPackageDependency
+ */
+class NoCyclicPackageDependencyTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ScanRuleFixture fixture;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new ScanRuleFixture(tempDir);
+    }
+
+    /**
+     * Tests that the injected project is analysed and the cycle reported.
+     */
+    @Test
+    void testExecute_ReportsCycle() throws IOException {
+        // Given: a → b → a
+        fixture.writeSource("com.acme.a", "A", "com.acme.b.B");
+        fixture.writeSource("com.acme.b", "B", "com.acme.a.A");
+        var rule = rule(new SourceModelCache());
+
+        // When / Then
+        var ex = assertThrows(EnforcerRuleException.class, rule::execute);
+        assertTrue(ex.getMessage().contains("com.acme.a → com.acme.b → com.acme.a"), ex.getMessage());
+    }
+
+    /**
+     * Tests that every cycle goes to the log while the report keeps only the first
+     * ones, when neither a cycle limit nor a time budget applies.
+     */
+    @Test
+    void testExecute_StreamsCyclesToLog() throws IOException {
+        // Given: five packages that all import each other, which form 84 elementary cycles
+        var packages = List.of("com.acme.a", "com.acme.b", "com.acme.c", "com.acme.d", "com.acme.e");
+        for (var name : packages) {
+            var imports = packages.stream().filter(other -> !other.equals(name))
+                    .map(other -> other + ".T").toArray(String[]::new);
+            fixture.writeSource(name, "T", imports);
+        }
+        var rule = rule(new SourceModelCache());
+        rule.setMaxCyclesPerComponent(0);
+        rule.setCycleSearchTimeout(0);
+
+        // When
+        var ex = assertThrows(EnforcerRuleException.class, rule::execute);
+
+        // Then
+        assertTrue(ex.getMessage().contains("Cycle 20: "), ex.getMessage());
+        assertFalse(ex.getMessage().contains("Cycle 21: "), ex.getMessage());
+        assertTrue(ex.getMessage().contains("... and 64 more cycles (see the log)"), ex.getMessage());
+        assertEquals(84L, fixture.messages().stream().filter(message -> message.startsWith("  Cycle ")).count(),
+                fixture.messages().toString());
+    }
+
+    /**
+     * Tests that a later execution in the same JVM reuses files and graph, and
+     * still sees edits.
+     */
+    @Test
+    void testExecute_ReusesSharedCache() throws Exception {
+        // Given: an acyclic tree analysed once, without the on-disk cache
+        fixture.writeSource("com.acme.a", "A", "com.acme.b.B");
+        fixture.writeSource("com.acme.b", "B");
+        var cache = new SourceModelCache();
+        var first = rule(cache);
+        first.setIncrementalCache(false);
+        first.execute();
+        assertEquals(2, cache.fileCount());
+        assertEquals(1, cache.graphCount());
+
+        // When: a new rule instance runs against the same cache
+        var second = rule(cache);
+        second.execute();
+
+        // Then: the files come from memory and the graph is reused
+        assertTrue(fixture.messages().contains("Scanned 2 source files (0 parsed, 2 from cache)"),
+                fixture.messages().toString());
+        assertEquals(1, cache.graphCount());
+
+        // When: an edit introduces a cycle
+        fixture.writeSource("com.acme.b", "B", "com.acme.a.A");
+
+        // Then: the change is picked up
+        assertThrows(EnforcerRuleException.class, rule(cache)::execute);
+        assertEquals(2, cache.graphCount());
+    }
+
+    /**
+     * Tests that other kevlar rules on the same module reuse the scanned model
+     * instead of reading the tree again, until a file changes.
+     */
+    @Test
+    void testExecute_SharesSourceModelWithOtherRules() throws Exception {
+        // Given: an acyclic tree, and no JVM-wide cache to fall back on
+        fixture.writeSource("com.acme.a", "A", "com.acme.b.B");
+        fixture.writeSource("com.acme.b", "B");
+        var project = fixture.project();
+        var cycles = fixture.withLogger(new NoCyclicPackageDependency(project, null, null));
+        var forbidden = fixture.withLogger(new ForbiddenPackageDependencies(project, null));
+        forbidden.setForbidden(List.of("com.acme.b -> com.acme.a"));
+
+        // When
+        cycles.execute();
+        forbidden.execute();
+
+        // Then: the tree was scanned once
+        assertEquals(1L, fixture.messages().stream().filter(message -> message.startsWith("Scanned")).count(),
+                fixture.messages().toString());
+        assertTrue(fixture.messages().contains("Reusing 2 source files scanned by an earlier rule"),
+                fixture.messages().toString());
+
+        // When / Then: an edit is picked up by the next rule
+        fixture.writeSource("com.acme.b", "B", "com.acme.a.A");
+        var ex = assertThrows(EnforcerRuleException.class, forbidden::execute);
+        assertTrue(ex.getMessage().contains("[com.acme.b -> com.acme.a] com.acme.b.B → com.acme.a.A"),
+                ex.getMessage());
+    }
+
+    /**
+     * Tests that the type level in source mode, whose edges come from imports, does
+     * not see references within one package, and says so.
+     */
+    @Test
+    void testExecute_TypeLevelInSourceModeSeesImportsOnly() throws IOException {
+        // Given: A and B reference each other in the same package, without imports
+        var dir = tempDir.resolve("src/main/java/com/acme/a");
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("A.java"), "package com.acme.a;\n\npublic class A {\n    B b;\n}\n");
+        Files.writeString(dir.resolve("B.java"), "package com.acme.a;\n\npublic class B {\n    A a;\n}\n");
+        var rule = rule(new SourceModelCache());
+        rule.setGranularities(List.of("type"));
+
+        // When / Then: the cycle is not reported, and the limitation is logged
+        assertDoesNotThrow(rule::execute);
+        assertTrue(fixture.messages().stream().anyMatch(message -> message.startsWith("Type level in source mode")),
+                fixture.messages().toString());
+    }
+
+    /**
+     * Tests that the result cache id, computed before the rule runs, follows the
+     * module and its sources.
+     */
+    @Test
+    void testGetCacheId_TracksModuleAndSources() throws IOException {
+        // Given: an acyclic tree, and rules that have not executed
+        fixture.writeSource("com.acme.a", "A", "com.acme.b.B");
+        fixture.writeSource("com.acme.b", "B");
+        var id = rule(new SourceModelCache()).getCacheId();
+
+        // When / Then: nothing changed
+        assertNotNull(id);
+        assertEquals(id, rule(new SourceModelCache()).getCacheId());
+
+        // When / Then: another module with the same configuration and tree
+        var other = fixture.project();
+        other.setArtifactId("other");
+        assertNotEquals(id, new NoCyclicPackageDependency(other, null, new SourceModelCache()).getCacheId());
+
+        // When / Then: B starts importing A
+        fixture.writeSource("com.acme.b", "B", "com.acme.a.A");
+        var edited = rule(new SourceModelCache()).getCacheId();
+        assertNotEquals(id, edited);
+        assertThrows(EnforcerRuleException.class, rule(new SourceModelCache())::execute);
+    }
+
+    /**
+     * Tests that the result cache is not used when the result depends on more than
+     * the module's own files.
+     */
+    @Test
+    void testGetCacheId_NullWhenResultDependsOnMore() throws IOException {
+        // Given
+        fixture.writeSource("com.acme.a", "A");
+        var aggregate = rule(new SourceModelCache());
+        aggregate.setAggregate(true);
+        var accessRules = rule(new SourceModelCache());
+        accessRules.setAccessRules(List.of("rules.xml"));
+
+        // When / Then
+        assertNull(aggregate.getCacheId());
+        assertNull(accessRules.getCacheId());
+    }
+
+    /**
+     * Tests that the aggregate mode refuses to run without a session.
+     */
+    @Test
+    void testExecute_AggregateRequiresSession() {
+        // Given
+        var rule = rule(new SourceModelCache());
+        rule.setAggregate(true);
+
+        // When / Then
+        var ex = assertThrows(EnforcerRuleException.class, rule::execute);
+        assertTrue(ex.getMessage().contains("session"), ex.getMessage());
+    }
+
+    /**
+     * Creates a rule for the temporary project, as the container would.
+     */
+    private NoCyclicPackageDependency rule(final SourceModelCache cache) {
+        return fixture.withLogger(new NoCyclicPackageDependency(fixture.project(), null, cache));
+    }
+}
@@ -0,0 +1,105 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link PackageGraph}.
+ * <p>
+ * These tests check the symbol table and the compressed sparse row layout produced
+ * by {@link PackageGraph.Builder}: ids in name order, sorted and de-duplicated
+ * adjacency rows, and no self-edges.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see PackageGraph
+ */
+class PackageGraphTest {
+
+    /**
+     * Tests that ids follow name order regardless of insertion order.
+     */
+    @Test
+    void testBuild_AssignsIdsInNameOrder() {
+        // Given
+        var builder = PackageGraph.builder();
+        builder.addEdge("c", "a");
+        builder.addEdge("b", "c");
+
+        // When
+        var graph = builder.build();
+
+        // Then
+        assertEquals(3, graph.size());
+        assertEquals(List.of("a", "b", "c"), graph.names(new int[] {0, 1, 2}));
+        assertEquals(1, graph.id("b"));
+        assertEquals(-1, graph.id("missing"));
+    }
+
+    /**
+     * Tests that duplicate edges and self-edges are dropped, rows are sorted and
+     * duplicates are counted as weight.
+     */
+    @Test
+    void testBuild_DeduplicatesAndSortsEdges() {
+        // Given
+        var builder = PackageGraph.builder();
+        builder.addEdge("a", "c");
+        builder.addEdge("a", "b");
+        builder.addEdge("a", "c");
+        builder.addEdge("a", "a");
+        builder.addNode("d");
+
+        // When
+        var graph = builder.build();
+
+        // Then
+        assertEquals(2, graph.edgeCount());
+        assertEquals(List.of("b", "c"), successors(graph, "a"));
+        assertEquals(List.of(), successors(graph, "d"));
+        // repetitions add to the weight of the edge
+        assertEquals(1, graph.weight(graph.edge(graph.id("a"), graph.id("b"))));
+        assertEquals(2, graph.weight(graph.edge(graph.id("a"), graph.id("c"))));
+    }
+
+    private static List<String> successors(final PackageGraph graph, final String name) {
+        var node = graph.id(name);
+        var result = new ArrayList<String>();
+        for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+            result.add(graph.name(graph.target(edge)));
+        }
+        return result;
+    }
+
+    /**
+     * Tests that external dependencies are counted per package but are not nodes.
+     */
+    @Test
+    void testBuild_CountsExternalFanOut() {
+        // Given
+        var builder = PackageGraph.builder();
+        builder.addEdge("b", "a");
+        builder.addExternalEdge("b", "java.util");
+        builder.addExternalEdge("b", "java.util");
+        builder.addExternalEdge("b", "org.slf4j");
+        builder.addExternalEdge("c", "java.io");
+
+        // When
+        var graph = builder.build();
+
+        // Then
+        assertEquals(3, graph.size());
+        assertEquals(-1, graph.id("java.util"));
+        assertEquals(0, graph.externalFanOut(graph.id("a")));
+        assertEquals(2, graph.externalFanOut(graph.id("b")));
+        assertEquals(1, graph.externalFanOut(graph.id("c")));
+        assertEquals(3, graph.externalEdgeCount());
+        assertEquals(1, graph.edgeCount());
+    }
+}
@@ -0,0 +1,78 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link PackageMetrics}.
+ * <p>
+ * These tests compute the JDepend metrics of a small package graph and check the
+ * coupling counts, the derived ratios and the CSV output.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see PackageMetrics
+ */
+class PackageMetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests coupling, instability, abstractness and distance of each package.
+     */
+    @Test
+    void testCompute_JDependMetrics() {
+        // Given: app → api, app → impl, impl → api, impl → java.util
+        var builder = PackageGraph.builder();
+        builder.addEdge("app", "api");
+        builder.addEdge("app", "impl");
+        builder.addEdge("impl", "api");
+        builder.addExternalEdge("impl", "java.util");
+        var graph = builder.build();
+
+        // When: api has 2 interfaces, impl and app 1 concrete class each
+        var entries = PackageMetrics.compute(graph, new int[] {0, 1, 1}, new int[] {2, 0, 0});
+
+        // Then: ids follow name order (api, app, impl)
+        var api = entries.get(0);
+        assertEquals(new PackageMetrics.Entry("api", 0, 2, 2, 0), api);
+        assertEquals(1.0, api.abstractness(), 1e-9);
+        assertEquals(0.0, api.instability(), 1e-9);
+        assertEquals(0.0, api.distance(), 1e-9);
+        var app = entries.get(1);
+        assertEquals(new PackageMetrics.Entry("app", 1, 0, 0, 2), app);
+        assertEquals(1.0, app.instability(), 1e-9);
+        assertEquals(0.0, app.distance(), 1e-9);
+        var impl = entries.get(2);
+        assertEquals(new PackageMetrics.Entry("impl", 1, 0, 1, 2), impl);
+        assertEquals(2.0 / 3, impl.instability(), 1e-9);
+        assertEquals(1.0 / 3, impl.distance(), 1e-9);
+    }
+
+    /**
+     * Tests that the metrics are written as one CSV line per package.
+     */
+    @Test
+    void testWrite_Csv() throws IOException {
+        // Given
+        var file = tempDir.resolve("kevlar/package-metrics.csv");
+        var entries = List.of(new PackageMetrics.Entry("com.acme", 3, 1, 2, 2));
+
+        // When
+        PackageMetrics.write(file, entries);
+
+        // Then
+        assertEquals(List.of("package,types,abstract,concrete,ca,ce,a,i,d", "com.acme,4,1,3,2,2,0.250,0.500,0.250"),
+                Files.readAllLines(file));
+    }
+}
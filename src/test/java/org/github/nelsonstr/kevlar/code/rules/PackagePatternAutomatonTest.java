@@ -0,0 +1,81 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link PackagePatternAutomaton}.
+ * <p>
+ * These tests compile package patterns into one automaton and check which of them
+ * each package name matches.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see PackagePatternAutomaton
+ */
+class PackagePatternAutomatonTest {
+
+    /**
+     * Tests that plain patterns match a package and its subpackages only.
+     */
+    @Test
+    void testMatch_PrefixSemantics() {
+        // Given
+        var automaton = new PackagePatternAutomaton();
+        var sql = automaton.add("java.sql");
+
+        // When / Then
+        assertTrue(automaton.match("java.sql").get(sql));
+        assertTrue(automaton.match("java.sql.rowset").get(sql));
+        assertFalse(automaton.match("java.sqlx").get(sql));
+        assertFalse(automaton.match("java").get(sql));
+        assertFalse(automaton.match("com.java.sql").get(sql));
+    }
+
+    /**
+     * Tests {@code ..} anywhere in the pattern, shared prefixes and globs.
+     */
+    @Test
+    void testMatch_AnySegmentsAndGlobs() {
+        // Given
+        var automaton = new PackagePatternAutomaton();
+        var domain = automaton.add("..domain..");
+        var impl = automaton.add("com.acme..impl");
+        var api = automaton.add("com.acme.*.api");
+        var all = automaton.add("..");
+
+        // When / Then
+        assertEquals(bits(domain, all), automaton.match("domain"));
+        assertEquals(bits(domain, all), automaton.match("com.acme.billing.domain.model"));
+        assertEquals(bits(impl, all), automaton.match("com.acme.impl"));
+        assertEquals(bits(impl, all), automaton.match("com.acme.billing.orders.impl.jdbc"));
+        assertEquals(bits(api, all), automaton.match("com.acme.billing.api"));
+        assertEquals(bits(all), automaton.match("com.acme.billing.orders.api"));
+        assertEquals(bits(all), automaton.match("com.acme.domainmodel"));
+    }
+
+    /**
+     * Tests that malformed patterns are rejected.
+     */
+    @Test
+    void testAdd_RejectsEmptySegments() {
+        var automaton = new PackagePatternAutomaton();
+        assertThrows(IllegalArgumentException.class, () -> automaton.add(""));
+        assertThrows(IllegalArgumentException.class, () -> automaton.add("com...acme"));
+        assertThrows(IllegalArgumentException.class, () -> automaton.add("com.acme."));
+        assertThrows(IllegalArgumentException.class, () -> automaton.add(".com"));
+    }
+
+    private static BitSet bits(final int... ids) {
+        final BitSet bits = new BitSet();
+        for (final int id : ids) {
+            bits.set(id);
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,109 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.apache.maven.enforcer.rule.api.EnforcerLogger;
+import org.apache.maven.project.MavenProject;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Shared fixture for the tests of the {@link AbstractScanRule} subclasses.
+ * <p>
+ * It owns a project in a temporary directory, writes small sources into it and
+ * hands out an {@link EnforcerLogger}, a plain {@link Proxy} that records the
+ * messages, so rules can be built the way the container builds them.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see AbstractScanRule
+ */
+final class ScanRuleFixture {
+
+    private final Path projectDir;
+
+    /** Mensagens registradas pelo logger */
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param projectDir diretório do projeto (o {@code @TempDir} do teste)
+     */
+    ScanRuleFixture(final Path projectDir) {
+        this.projectDir = projectDir;
+    }
+
+    /**
+     * Novo projeto no diretório do fixture, como o container o injetaria.
+     */
+    MavenProject project() {
+        final MavenProject project = new MavenProject();
+        project.setFile(projectDir.resolve("pom.xml").toFile());
+        return project;
+    }
+
+    /**
+     * Prepara a regra com o logger do fixture.
+     */
+    <R extends AbstractScanRule> R withLogger(final R rule) {
+        rule.setLog(logger());
+        return rule;
+    }
+
+    /**
+     * Mensagens recebidas até agora, em ordem.
+     */
+    List<String> messages() {
+        return messages;
+    }
+
+    /**
+     * Logger que guarda as mensagens recebidas.
+     */
+    EnforcerLogger logger() {
+        return (EnforcerLogger) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {EnforcerLogger.class},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("is")) {
+                        return true;
+                    }
+                    final Object content = args[0];
+                    messages.add(String.valueOf(content instanceof Supplier<?> supplier ? supplier.get() : content));
+                    return null;
+                });
+    }
+
+    /**
+     * Grava em {@code src/main/java} um fonte com uma única classe que importa os
+     * tipos dados.
+     */
+    void writeSource(final String packageName, final String className, final String... imports)
+            throws IOException {
+        write("src/main/java", packageName, className, imports);
+    }
+
+    /**
+     * Como {@link #writeSource}, mas em {@code src/test/java}.
+     */
+    void writeTestSource(final String packageName, final String className, final String... imports)
+            throws IOException {
+        write("src/test/java", packageName, className, imports);
+    }
+
+    private void write(final String root, final String packageName, final String className,
+            final String... imports) throws IOException {
+        final Path dir = projectDir.resolve(root).resolve(packageName.replace('.', '/'));
+        Files.createDirectories(dir);
+        final StringBuilder source = new StringBuilder("package ").append(packageName).append(";\n\n");
+        for (final String imported : imports) {
+            source.append("import ").append(imported).append(";\n");
+        }
+        source.append("\npublic class ").append(className).append(" {\n}\n");
+        Files.writeString(dir.resolve(className + ".java"), source);
+    }
+}
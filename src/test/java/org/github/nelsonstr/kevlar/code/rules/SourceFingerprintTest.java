@@ -0,0 +1,99 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SourceFingerprint}.
+ * <p>
+ * These tests fingerprint a small source tree and check which changes on disk
+ * invalidate it.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see SourceFingerprint
+ */
+class SourceFingerprintTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that the digest depends on content and paths, not on timestamps.
+     */
+    @Test
+    void testDigest_DependsOnContentOnly() throws IOException {
+        // Given
+        var a = Files.writeString(tempDir.resolve("A.java"), "package p;\nclass A {}\n");
+        var b = Files.writeString(tempDir.resolve("B.java"), "package p;\nclass B {}\n");
+        var before = SourceFingerprint.of(scan(a, b));
+
+        // When: touched only
+        Files.setLastModifiedTime(a, FileTime.fromMillis(Files.getLastModifiedTime(a).toMillis() + 5000));
+        var touched = SourceFingerprint.of(scan(a, b));
+
+        // Then
+        assertEquals(before.digest(), touched.digest());
+        assertEquals(2, touched.size());
+
+        // When: edited
+        Files.writeString(b, "package p;\nclass B { int x; }\n");
+
+        // Then
+        assertNotEquals(before.digest(), SourceFingerprint.of(scan(a, b)).digest());
+    }
+
+    /**
+     * Tests that a touched but unchanged file keeps the fingerprint current.
+     */
+    @Test
+    void testIsCurrent_IgnoresTimestampOnlyChanges() throws IOException {
+        // Given
+        var a = Files.writeString(tempDir.resolve("A.java"), "package p;\nclass A {}\n");
+        var fingerprint = SourceFingerprint.of(scan(a));
+
+        // When
+        Files.setLastModifiedTime(a, FileTime.fromMillis(Files.getLastModifiedTime(a).toMillis() + 5000));
+
+        // Then
+        assertTrue(fingerprint.isCurrent(List.of(a)));
+
+        // When: same size, other content (with a timestamp the fingerprint has not seen)
+        Files.writeString(a, "package q;\nclass A {}\n");
+        Files.setLastModifiedTime(a, FileTime.fromMillis(Files.getLastModifiedTime(a).toMillis() + 10000));
+
+        // Then
+        assertFalse(fingerprint.isCurrent(List.of(a)));
+    }
+
+    /**
+     * Tests that added and removed files invalidate the fingerprint.
+     */
+    @Test
+    void testIsCurrent_DetectsAddedAndRemovedFiles() throws IOException {
+        // Given
+        var a = Files.writeString(tempDir.resolve("A.java"), "package p;\nclass A {}\n");
+        var b = Files.writeString(tempDir.resolve("B.java"), "package p;\nclass B {}\n");
+        var fingerprint = SourceFingerprint.of(scan(a));
+
+        // When / Then
+        assertTrue(fingerprint.isCurrent(List.of(a)));
+        assertFalse(fingerprint.isCurrent(List.of(a, b)));
+        assertFalse(fingerprint.isCurrent(List.of()));
+        assertFalse(fingerprint.isCurrent(List.of(b)));
+    }
+
+    private static List<SourceFile> scan(final Path... files) throws IOException {
+        return new SourceScanner(1, null, new NameInterner()).scan(List.of(files));
+    }
+}
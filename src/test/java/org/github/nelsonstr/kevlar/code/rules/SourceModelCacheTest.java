@@ -0,0 +1,112 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SourceModelCache}.
+ * <p>
+ * These tests scan real files through a {@link SourceScanner} and check when the
+ * in-memory entries are reused, invalidated and evicted.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see SourceModelCache
+ */
+class SourceModelCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that a second scan is served from memory until a file changes.
+     */
+    @Test
+    void testLookup_ReusesUnchangedFiles() throws IOException {
+        // Given: two files scanned once
+        var a = Files.writeString(tempDir.resolve("A.java"), "package p;\nimport q.B;\nclass A {}\n");
+        var b = Files.writeString(tempDir.resolve("B.java"), "package p;\nclass B {}\n");
+        var cache = new SourceModelCache();
+        assertEquals(2, scanner(cache).scan(List.of(a, b)).size());
+
+        // When: scanned again with a new scanner
+        var second = scanner(cache);
+        var sources = second.scan(List.of(a, b));
+
+        // Then: nothing is parsed
+        assertEquals(0, second.parsedCount());
+        assertEquals("q.B", sources.get(0).header().imports().get(0).name());
+
+        // When: one file is edited
+        Files.writeString(b, "package p;\nimport r.C;\nclass B { int x; }\n");
+        var third = scanner(cache);
+        sources = third.scan(List.of(a, b));
+
+        // Then: only that file is parsed again
+        assertEquals(1, third.parsedCount());
+        assertEquals("r.C", sources.get(1).header().imports().get(0).name());
+    }
+
+    /**
+     * Tests that the least recently used files are evicted past the bound.
+     */
+    @Test
+    void testStore_EvictsLeastRecentlyUsed() throws IOException {
+        // Given: room for two files
+        var cache = new SourceModelCache(2, 1);
+        var files = List.of(
+                Files.writeString(tempDir.resolve("A.java"), "package p;\nclass A {}\n"),
+                Files.writeString(tempDir.resolve("B.java"), "package p;\nclass B {}\n"),
+                Files.writeString(tempDir.resolve("C.java"), "package p;\nclass C {}\n"));
+
+        // When
+        scanner(cache).scan(files);
+
+        // Then: only the last two are kept
+        assertEquals(2, cache.fileCount());
+        var again = scanner(cache);
+        again.scan(files.subList(1, 3));
+        assertEquals(0, again.parsedCount());
+    }
+
+    /**
+     * Tests that a graph is built once per key.
+     */
+    @Test
+    void testGraph_BuildsOncePerKey() {
+        // Given
+        var cache = new SourceModelCache(10, 1);
+        var builds = new AtomicInteger();
+
+        // When
+        var first = cache.graph("k1", () -> graph(builds));
+        var second = cache.graph("k1", () -> graph(builds));
+        cache.graph("k2", () -> graph(builds));
+
+        // Then: the second lookup is a hit, and the bound keeps one graph
+        assertSame(first, second);
+        assertEquals(2, builds.get());
+        assertEquals(1, cache.graphCount());
+    }
+
+    private static SourceScanner scanner(final SourceModelCache cache) {
+        return new SourceScanner(1, null, cache, new NameInterner(), ImportLexer::read);
+    }
+
+    private static PackageGraph graph(final AtomicInteger builds) {
+        builds.incrementAndGet();
+        final PackageGraph.Builder builder = PackageGraph.builder();
+        builder.addEdge("a", "b");
+        return builder.build();
+    }
+}
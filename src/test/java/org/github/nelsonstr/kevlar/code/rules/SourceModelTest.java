@@ -0,0 +1,81 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SourceModel}.
+ * <p>
+ * These tests share models through the context values of a {@link MavenProject}
+ * and check that derived indexes and graphs are built once.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see SourceModel
+ */
+class SourceModelTest {
+
+    /**
+     * Tests that a valid model is reused and an invalid one replaced.
+     */
+    @Test
+    void testShared_ReusesValidModel() throws IOException {
+        // Given
+        var project = new MavenProject();
+        var scans = new AtomicInteger();
+        SourceModel.Computation scan = () -> {
+            scans.incrementAndGet();
+            return new SourceModel(List.of(file("A.java")), List.of());
+        };
+
+        // When
+        var first = SourceModel.shared(project, "key", model -> true, scan);
+        var second = SourceModel.shared(project, "key", model -> true, scan);
+        var other = SourceModel.shared(project, "other", model -> true, scan);
+        var rescanned = SourceModel.shared(project, "key", model -> false, scan);
+
+        // Then
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertNotSame(first, rescanned);
+        assertSame(rescanned, SourceModel.shared(project, "key", model -> true, scan));
+        assertEquals(3, scans.get());
+    }
+
+    /**
+     * Tests the layers of the model and the memoized graphs.
+     */
+    @Test
+    void testGraph_BuiltOnce() {
+        // Given
+        var model = new SourceModel(List.of(file("A.java")), List.of(file("ATest.java")));
+        var builds = new AtomicInteger();
+
+        // When
+        Supplier<TypeGraph> build = () -> {
+            builds.incrementAndGet();
+            return TypeGraph.builder().build();
+        };
+        var graph = model.graph("main", build);
+
+        // Then
+        assertSame(graph, model.graph("main", build));
+        assertEquals(1, builds.get());
+        assertEquals(List.of(file("A.java"), file("ATest.java")), model.all());
+        assertEquals(2, model.fingerprint().size());
+    }
+
+    private static SourceFile file(final String name) {
+        return new SourceFile(Path.of(name), 1, 1, 1, new SourceHeader("com.acme", List.of()));
+    }
+}
@@ -0,0 +1,120 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link StronglyConnectedComponents}.
+ * <p>
+ * These tests cover the cases the previous depth-limited DFS got wrong: cycles
+ * longer than the depth limit, cycles only reachable through an already visited
+ * node, and graphs deep enough to overflow a recursive search.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see StronglyConnectedComponents
+ */
+class StronglyConnectedComponentsTest {
+
+    /**
+     * Tests that a cycle of 50 packages is found as one component.
+     */
+    @Test
+    void testFind_LongCycle() {
+        // Given: p00 → p01 → ... → p49 → p00
+        var builder = PackageGraph.builder();
+        for (int i = 0; i < 50; i++) {
+            builder.addEdge(name(i), name((i + 1) % 50));
+        }
+        var graph = builder.build();
+
+        // When
+        var components = StronglyConnectedComponents.find(graph);
+
+        // Then
+        assertEquals(1, components.size());
+        assertEquals(50, components.get(0).length);
+        assertEquals(51, StronglyConnectedComponents.shortestCycle(graph, components.get(0)).length);
+    }
+
+    /**
+     * Tests that a cycle reached through a node visited earlier is still found.
+     */
+    @Test
+    void testFind_CycleBehindVisitedNode() {
+        // Given: a → c, b → c, c → d, d → c  (the c ↔ d cycle is seen from both a and b)
+        var builder = PackageGraph.builder();
+        builder.addEdge("a", "c");
+        builder.addEdge("b", "c");
+        builder.addEdge("c", "d");
+        builder.addEdge("d", "c");
+        builder.addEdge("x", "y");
+        builder.addEdge("y", "x");
+        var graph = builder.build();
+
+        // When
+        var components = StronglyConnectedComponents.find(graph);
+
+        // Then
+        assertEquals(2, components.size());
+        assertEquals(List.of("c", "d"), graph.names(components.get(0)));
+        assertEquals(List.of("x", "y"), graph.names(components.get(1)));
+        assertEquals(List.of("c", "d", "c"),
+                graph.names(StronglyConnectedComponents.shortestCycle(graph, components.get(0))));
+    }
+
+    /**
+     * Tests that trimming removes every node of an acyclic graph.
+     */
+    @Test
+    void testTrim_RemovesAcyclicNodes() {
+        // Given: a diamond plus a tail hanging off a cycle
+        var builder = PackageGraph.builder();
+        builder.addEdge("a", "b");
+        builder.addEdge("a", "c");
+        builder.addEdge("b", "d");
+        builder.addEdge("c", "d");
+        builder.addEdge("d", "e");
+        builder.addEdge("e", "d");
+        builder.addEdge("e", "f");
+        var graph = builder.build();
+
+        // When
+        var alive = StronglyConnectedComponents.trim(graph);
+
+        // Then: only the d ↔ e cycle survives
+        for (int node = 0; node < graph.size(); node++) {
+            var name = graph.name(node);
+            assertEquals(name.equals("d") || name.equals("e"), alive[node], name);
+        }
+    }
+
+    /**
+     * Tests that a very deep cycle does not overflow the stack.
+     */
+    @Test
+    void testFind_DeepGraphDoesNotOverflow() {
+        // Given: a single cycle through 200,000 packages
+        var builder = PackageGraph.builder();
+        var size = 200_000;
+        for (int i = 0; i < size; i++) {
+            builder.addEdge("p" + i, "p" + ((i + 1) % size));
+        }
+
+        // When
+        var components = StronglyConnectedComponents.find(builder.build());
+
+        // Then
+        assertEquals(1, components.size());
+        assertEquals(size, components.get(0).length);
+    }
+
+    private static String name(final int i) {
+        return "p%02d".formatted(i);
+    }
+}
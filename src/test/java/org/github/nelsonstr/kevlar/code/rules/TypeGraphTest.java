@@ -0,0 +1,139 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link TypeGraph}.
+ * <p>
+ * These tests check the projections of the type graph to type, package and
+ * package-prefix granularity: groups in name order, sorted and de-duplicated rows,
+ * no self-edges, and external fan-out counted per group.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see TypeGraph
+ */
+class TypeGraphTest {
+
+    /**
+     * Tests that the type projection keeps one node per type.
+     */
+    @Test
+    void testProject_TypeLevelKeepsTypes() {
+        // Given
+        var builder = TypeGraph.builder();
+        builder.addEdge("a.A", "a", "a.B", "a");
+        builder.addEdge("a.B", "a", "a.A", "a");
+        builder.addType("b.C", "b");
+
+        // When
+        var graph = builder.build().project(TypeGraph.Granularity.TYPE);
+
+        // Then
+        assertEquals(3, graph.size());
+        assertEquals(List.of("a.B"), successors(graph, "a.A"));
+        assertEquals(List.of("a.A"), successors(graph, "a.B"));
+        assertEquals(1, StronglyConnectedComponents.find(graph).size());
+    }
+
+    /**
+     * Tests that the package projection merges types, drops self-edges and
+     * de-duplicates edges.
+     */
+    @Test
+    void testProject_PackageLevelMergesTypes() {
+        // Given
+        var builder = TypeGraph.builder();
+        builder.addEdge("a.A", "a", "a.B", "a");
+        builder.addEdge("a.A", "a", "c.E", "c");
+        builder.addEdge("a.B", "a", "c.D", "c");
+        builder.addEdge("a.B", "a", "b.C", "b");
+        builder.addEdge("c.D", "c", "a.A", "a");
+
+        // When
+        var graph = builder.build().project(TypeGraph.Granularity.PACKAGE);
+
+        // Then
+        assertEquals(List.of("a", "b", "c"), graph.names(new int[] {0, 1, 2}));
+        assertEquals(List.of("b", "c"), successors(graph, "a"));
+        assertEquals(List.of("a"), successors(graph, "c"));
+        assertEquals(3, graph.edgeCount());
+        // a → c comes from two references, the others from one
+        assertEquals(2, graph.weight(graph.edge(graph.id("a"), graph.id("c"))));
+        assertEquals(1, graph.weight(graph.edge(graph.id("a"), graph.id("b"))));
+        assertEquals(-1, graph.edge(graph.id("b"), graph.id("a")));
+    }
+
+    /**
+     * Tests that a prefix projection groups packages by their leading segments,
+     * exposing cycles between subsystems that are not cycles between packages.
+     */
+    @Test
+    void testProject_PrefixLevelGroupsPackages() {
+        // Given
+        var builder = TypeGraph.builder();
+        builder.addEdge("com.acme.billing.api.A", "com.acme.billing.api", "com.acme.orders.B", "com.acme.orders");
+        builder.addEdge("com.acme.orders.C", "com.acme.orders", "com.acme.billing.impl.D", "com.acme.billing.impl");
+        builder.addType("org.X", "org");
+        var types = builder.build();
+
+        // When
+        var packages = types.project(TypeGraph.Granularity.PACKAGE);
+        var prefixes = types.project(TypeGraph.Granularity.parse("3"));
+
+        // Then
+        assertTrue(StronglyConnectedComponents.find(packages).isEmpty());
+        assertEquals(1, StronglyConnectedComponents.find(prefixes).size());
+        assertEquals(List.of("com.acme.orders"), successors(prefixes, "com.acme.billing"));
+        assertEquals(List.of("com.acme.billing"), successors(prefixes, "com.acme.orders"));
+    }
+
+    /**
+     * Tests that external packages are counted once per group.
+     */
+    @Test
+    void testProject_CountsExternalFanOutPerGroup() {
+        // Given
+        var builder = TypeGraph.builder();
+        builder.addExternalEdge("a.A", "a", "java.util");
+        builder.addExternalEdge("a.B", "a", "java.util");
+        builder.addExternalEdge("a.B", "a", "java.io");
+        builder.addExternalEdge("b.C", "b", "java.io");
+
+        // When
+        var graph = builder.build().project(TypeGraph.Granularity.PACKAGE);
+
+        // Then
+        assertEquals(2, graph.externalFanOut(graph.id("a")));
+        assertEquals(1, graph.externalFanOut(graph.id("b")));
+        assertEquals(0, graph.edgeCount());
+    }
+
+    /**
+     * Tests parsing of the configured granularities.
+     */
+    @Test
+    void testGranularity_Parse() {
+        assertEquals(TypeGraph.Granularity.TYPE, TypeGraph.Granularity.parse("type"));
+        assertEquals(TypeGraph.Granularity.PACKAGE, TypeGraph.Granularity.parse(" Package "));
+        assertEquals(2, TypeGraph.Granularity.parse("2").segments());
+        assertThrows(IllegalArgumentException.class, () -> TypeGraph.Granularity.parse("0"));
+        assertThrows(IllegalArgumentException.class, () -> TypeGraph.Granularity.parse("module"));
+    }
+
+    private static List<String> successors(final PackageGraph graph, final String name) {
+        var node = graph.id(name);
+        var result = new ArrayList<String>();
+        for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+            result.add(graph.name(graph.target(edge)));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,95 @@
+package org.github.nelsonstr.kevlar.code.rules;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link TypeIndex}.
+ * <p>
+ * These tests index a few project types and check the package each kind of import
+ * declaration resolves to.
+ * </p>
+ *
+ * @author Nelson Str
+ * @version 1.0
+ * @since 2.1
+ * @see TypeIndex
+ */
+class TypeIndexTest {
+
+    private final TypeIndex index = TypeIndex.builder()
+            .addType("com.acme.a", "A")
+            .addType("com.acme.b", "Outer$Inner")
+            .build();
+
+    /**
+     * Tests that a wildcard import of a project package resolves to that package.
+     */
+    @Test
+    void testResolve_OnDemandPackage() {
+        // When / Then
+        assertEquals("com.acme.a", index.resolve(new ImportDeclaration("com.acme.a", false, true)));
+        assertTrue(index.isPackage("com.acme.b"));
+    }
+
+    /**
+     * Tests that a wildcard import of a nested type resolves to the enclosing package.
+     */
+    @Test
+    void testResolve_OnDemandNestedType() {
+        // When / Then
+        assertEquals("com.acme.b", index.resolve(new ImportDeclaration("com.acme.b.Outer", false, true)));
+        assertEquals("com.acme.b", index.resolve(new ImportDeclaration("com.acme.b.Outer.Inner", false, true)));
+        assertEquals("com.acme.b", index.packageOfType("com.acme.b.Outer.Inner"));
+    }
+
+    /**
+     * Tests that external wildcard imports follow the naming convention.
+     */
+    @Test
+    void testResolve_OnDemandExternal() {
+        // When / Then
+        assertEquals("java.util", index.resolve(new ImportDeclaration("java.util", false, true)));
+        assertEquals("java.util", index.resolve(new ImportDeclaration("java.util.Map", false, true)));
+        assertEquals("java.util", index.resolve(new ImportDeclaration("java.util.List", false, false)));
+    }
+
+    /**
+     * Tests that static imports resolve to the package of the owning type.
+     */
+    @Test
+    void testResolve_StaticImports() {
+        // When / Then
+        assertEquals("com.acme.a", index.resolve(new ImportDeclaration("com.acme.a.A.max", true, false)));
+        assertEquals("com.acme.b", index.resolve(new ImportDeclaration("com.acme.b.Outer.Inner.VALUE", true, false)));
+        assertEquals("com.acme.b", index.resolve(new ImportDeclaration("com.acme.b.Outer", true, true)));
+        assertEquals("org.junit.jupiter.api",
+                index.resolve(new ImportDeclaration("org.junit.jupiter.api.Assertions", true, true)));
+    }
+
+    /**
+     * Tests that nested-type imports resolve through the longest known prefix.
+     */
+    @Test
+    void testResolve_NestedTypeImports() {
+        // When / Then: Outer.Deep is not indexed, Outer is
+        assertEquals("com.acme.b", index.resolve(new ImportDeclaration("com.acme.b.Outer.Inner", false, false)));
+        assertEquals("com.acme.b", index.resolve(new ImportDeclaration("com.acme.b.Outer.Deep", false, false)));
+        assertEquals("java.util", index.resolve(new ImportDeclaration("java.util.Map.Entry", false, false)));
+        assertNull(index.ownerOf("com.acme.c.C"));
+    }
+
+    /**
+     * Tests that references resolve to the registered name of the deepest known type.
+     */
+    @Test
+    void testTypeOf_DeepestKnownType() {
+        // When / Then
+        assertEquals("com.acme.a.A", index.typeOf("com.acme.a.A.max"));
+        assertEquals("com.acme.b.Outer", index.typeOf("com.acme.b.Outer"));
+        assertEquals("com.acme.b.Outer$Inner", index.typeOf("com.acme.b.Outer.Inner.VALUE"));
+        assertNull(index.typeOf("com.acme.a"));
+        assertNull(index.typeOf("java.util.Map"));
+    }
+}